@@ -0,0 +1,68 @@
+package org.shiloh.multithread.atomic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 11:15
+ * @description 基于AtomicLong的ID生成器{@link AtomicLongIdGenerator}、号段生成器{@link BlockIdGenerator}
+ * 与雪花算法生成器{@link SnowflakeIdGenerator}的对比
+ * AtomicLongIdGenerator与{@link AtomicClassTests}中的IdGenerator实现相同，后者是辅助类，不能在源文件以外访问，所以这里保留一份
+ * 生成ID只有写操作，所以这里没有读写比例参数
+ * 雪花算法每毫秒最多生成4096个ID，超出后会等待系统时钟前进，它的吞吐量上限约为每秒409.6万
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IdGeneratorBenchmark {
+
+    private AtomicLongIdGenerator idGenerator;
+
+    private BlockIdGenerator blockIdGenerator;
+
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
+    @Setup
+    public void setup() throws IOException {
+        idGenerator = new AtomicLongIdGenerator();
+        blockIdGenerator = new BlockIdGenerator();
+        snowflakeIdGenerator = new SnowflakeIdGenerator(1);
+    }
+
+    @Benchmark
+    public long atomicLongIdGenerator() {
+        return idGenerator.getNextId();
+    }
+
+    @Benchmark
+    public long blockIdGenerator() {
+        return blockIdGenerator.getNextId();
+    }
+
+    @Benchmark
+    public long snowflakeIdGenerator() {
+        return snowflakeIdGenerator.getNextId();
+    }
+
+    /**
+     * 基于AtomicLong的ID生成器
+     */
+    private static class AtomicLongIdGenerator {
+
+        private final AtomicLong atomicLong = new AtomicLong();
+
+        public long getNextId() {
+            return atomicLong.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.shiloh.multithread.benchmark;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 10:45
+ * @description 按1/2/4/8/16/32个线程依次运行基准测试，并按线程数汇总吞吐量
+ * JMH的线程数不能通过{@code @Param}指定，所以这里对每个线程数单独运行一轮，最后打印一张对比表。
+ * 命令行/OptionsBuilder指定的线程数会覆盖{@code @Threads}注解，只能单线程运行的基准测试（见{@link #SINGLE_THREADED}）
+ * 只在1个线程的那一轮中运行。
+ * <p>
+ * 用法：
+ * mvn -B package
+ * java -jar benchmarks/target/benchmarks.jar [benchmark正则，默认全部运行]
+ * <p>
+ * 只跑某一个线程数时，也可以直接使用JMH自带的命令行：
+ * java -cp benchmarks/target/benchmarks.jar org.openjdk.jmh.Main Counter -t 8
+ */
+public class BenchmarkRunner {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32};
+
+    /**
+     * 只能单线程运行的基准测试，例如每次调用都分配与文件一样大的堆数组，多个线程同时运行会OOM
+     */
+    private static final String[] SINGLE_THREADED = {"MappedFileSumBenchmark"};
+
+    public static void main(String[] args) throws RunnerException {
+        final var include = args.length > 0 ? args[0] : "org.shiloh.multithread";
+        // 基准测试名称 + 参数 -> (线程数 -> 吞吐量)
+        final var table = new TreeMap<String, Map<Integer, Double>>();
+        for (int threads : THREADS) {
+            final var builder = new OptionsBuilder()
+                    .include(include)
+                    .exclude(BenchmarkRunner.class.getSimpleName());
+            if (threads > 1) {
+                for (String benchmark : SINGLE_THREADED) {
+                    builder.exclude(benchmark);
+                }
+            }
+            final var options = builder
+                    .threads(threads)
+                    .forks(1)
+                    .warmupIterations(3)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(5)
+                    .measurementTime(TimeValue.seconds(1))
+                    .build();
+            collect(table, threads, new Runner(options).run());
+        }
+        print(table);
+    }
+
+    private static void collect(Map<String, Map<Integer, Double>> table, int threads,
+                                Collection<RunResult> results) {
+        for (RunResult result : results) {
+            final var params = result.getParams();
+            final var keys = new ArrayList<>(params.getParamsKeys());
+            final var name = new StringBuilder(params.getBenchmark());
+            for (String key : keys) {
+                name.append(' ').append(key).append('=').append(params.getParam(key));
+            }
+            table.computeIfAbsent(name.toString(), k -> new LinkedHashMap<>())
+                    .put(threads, result.getPrimaryResult().getScore());
+        }
+    }
+
+    private static void print(Map<String, Map<Integer, Double>> table) {
+        System.out.printf("%n%-90s", "benchmark (ops/s)");
+        for (int threads : THREADS) {
+            System.out.printf("%14s", threads + " threads");
+        }
+        System.out.println();
+        table.forEach((name, scores) -> {
+            System.out.printf("%-90s", name);
+            for (int threads : THREADS) {
+                final var score = scores.get(threads);
+                System.out.printf("%14s", score == null ? "-" : String.format("%.0f", score));
+            }
+            System.out.println();
+        });
+    }
+}
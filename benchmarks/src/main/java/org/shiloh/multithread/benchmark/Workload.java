@@ -0,0 +1,20 @@
+package org.shiloh.multithread.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 10:40
+ * @description 基准测试的读写混合比例
+ * 每个基准测试方法都通过{@link #isRead(int)}决定本次调用执行读操作还是写操作，
+ * readPercent = 0表示只写，readPercent = 100表示只读，各基准测试统一使用0/50/90/99四档
+ */
+public final class Workload {
+
+    private Workload() {
+    }
+
+    public static boolean isRead(int readPercent) {
+        return ThreadLocalRandom.current().nextInt(100) < readPercent;
+    }
+}
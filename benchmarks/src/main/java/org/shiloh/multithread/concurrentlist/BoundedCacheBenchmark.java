@@ -0,0 +1,95 @@
+package org.shiloh.multithread.concurrentlist;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 14:50
+ * @description Zipf分布访问下，{@link BoundedCache}与加锁的LinkedHashMap LRU、无界ConcurrentHashMap的吞吐量对比
+ * 预先生成一段Zipf分布（theta = 0.99，100万个key）的访问序列，每个线程从随机位置开始循环读取；
+ * 每次访问都是“不存在则加载”，加载函数直接返回key，所以这里比较的是缓存自身的开销（包括淘汰）。
+ * 无界ConcurrentHashMap没有淘汰，是吞吐量的上限，但内存会一直增长。
+ * 命中率的对比见examples模块的{@link BoundedCacheTests}
+ * <p>
+ * 单独运行：java -cp benchmarks/target/benchmarks.jar org.openjdk.jmh.Main BoundedCache -t 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BoundedCacheBenchmark {
+
+    private static final int KEYS = 1_000_000;
+
+    private static final int CAPACITY = 10_000;
+
+    private static final int TRACE_SIZE = 1 << 20;
+
+    private static final Function<Long, Long> LOADER = key -> key;
+
+    private Long[] trace;
+
+    private BoundedCache<Long, Long> boundedCache;
+
+    private Map<Long, Long> synchronizedLru;
+
+    private ConcurrentHashMap<Long, Long> concurrentHashMap;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int index = ThreadLocalRandom.current().nextInt(TRACE_SIZE);
+
+        int next() {
+            index = (index + 1) & (TRACE_SIZE - 1);
+            return index;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        final var zipf = new ZipfianGenerator(KEYS, 0.99);
+        final var random = new Random(42);
+        trace = new Long[TRACE_SIZE];
+        for (int i = 0; i < TRACE_SIZE; i++) {
+            trace[i] = zipf.next(random);
+        }
+        boundedCache = new BoundedCache<>(CAPACITY);
+        synchronizedLru = Collections.synchronizedMap(new LinkedHashMap<>(CAPACITY, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > CAPACITY;
+            }
+        });
+        concurrentHashMap = new ConcurrentHashMap<>();
+    }
+
+    @Benchmark
+    public Long boundedCache(Cursor cursor) {
+        return boundedCache.get(trace[cursor.next()], LOADER);
+    }
+
+    @Benchmark
+    public Long synchronizedLru(Cursor cursor) {
+        return synchronizedLru.computeIfAbsent(trace[cursor.next()], LOADER);
+    }
+
+    @Benchmark
+    public Long concurrentHashMapUnbounded(Cursor cursor) {
+        return concurrentHashMap.computeIfAbsent(trace[cursor.next()], LOADER);
+    }
+}
@@ -0,0 +1,83 @@
+package org.shiloh.multithread.concurrentlist;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.shiloh.multithread.benchmark.Workload;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 12:30
+ * @description ConcurrentHashMap<Long, Long>与{@link ConcurrentLongLongMap}（堆内、堆外）的吞吐量对比
+ * 三个map都预先放入{@link #KEYS}个条目，读操作随机get一个key，写操作随机put一个key（只覆盖已有的key，条目数不变）。
+ * 内存占用的对比见examples模块的{@link ConcurrentLongLongMapTests}
+ * <p>
+ * 单独运行：java -cp benchmarks/target/benchmarks.jar org.openjdk.jmh.Main ConcurrentLongLongMap -t 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ConcurrentLongLongMapBenchmark {
+
+    private static final int KEYS = 1 << 20;
+
+    @Param({"0", "50", "90", "99"})
+    public int readPercent;
+
+    private ConcurrentHashMap<Long, Long> concurrentHashMap;
+
+    private ConcurrentLongLongMap heapMap;
+
+    private ConcurrentLongLongMap offHeapMap;
+
+    @Setup
+    public void setup() {
+        concurrentHashMap = new ConcurrentHashMap<>(KEYS);
+        final var concurrencyLevel = Runtime.getRuntime().availableProcessors() * 4;
+        heapMap = new ConcurrentLongLongMap(KEYS, concurrencyLevel, false, -1);
+        offHeapMap = new ConcurrentLongLongMap(KEYS, concurrencyLevel, true, -1);
+        for (long i = 0; i < KEYS; i++) {
+            concurrentHashMap.put(i, i);
+            heapMap.put(i, i);
+            offHeapMap.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public Long concurrentHashMap() {
+        final long key = ThreadLocalRandom.current().nextInt(KEYS);
+        if (Workload.isRead(readPercent)) {
+            return concurrentHashMap.get(key);
+        }
+        return concurrentHashMap.put(key, key);
+    }
+
+    @Benchmark
+    public long longLongMapHeap() {
+        final long key = ThreadLocalRandom.current().nextInt(KEYS);
+        if (Workload.isRead(readPercent)) {
+            return heapMap.get(key);
+        }
+        return heapMap.put(key, key);
+    }
+
+    @Benchmark
+    public long longLongMapOffHeap() {
+        final long key = ThreadLocalRandom.current().nextInt(KEYS);
+        if (Workload.isRead(readPercent)) {
+            return offHeapMap.get(key);
+        }
+        return offHeapMap.put(key, key);
+    }
+}
@@ -0,0 +1,88 @@
+package org.shiloh.multithread.forkjoin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 14:50
+ * @description 内存映射求和{@link MappedLongFile}与“读入堆数组再求和”的对比
+ * 两种方式都包含打开文件的开销，文件在第一次迭代后都位于page cache中，所以比较的是复制数据到堆与直接读取映射内存的差别。
+ * 堆数组版本需要 -Xmx 大于文件大小，这里把堆设为4GB。每个线程都会分配一个与文件一样大的数组（sizeMb = 1024时为1GB），
+ * 多线程运行会OOM，所以固定为单线程，BenchmarkRunner也只在1个线程的那一轮中运行它，不要用 -t 指定更多线程。
+ * <p>
+ * 单独运行：java -cp benchmarks/target/benchmarks.jar org.openjdk.jmh.Main MappedFileSum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(1)
+public class MappedFileSumBenchmark {
+
+    @Param({"16", "256", "1024"})
+    public int sizeMb;
+
+    private final ParallelReducer reducer = new ParallelReducer();
+
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        path = Files.createTempFile("longs", ".bin");
+        MappedLongFileTests.writeRandomLongs(path, sizeMb * (1L << 20) / Long.BYTES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public long mappedFile() throws IOException {
+        try (var file = MappedLongFile.open(path)) {
+            return file.sum(reducer);
+        }
+    }
+
+    @Benchmark
+    public long heapArray() throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final var array = new long[(int) (channel.size() / Long.BYTES)];
+            final var buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.nativeOrder());
+            var index = 0;
+            while (channel.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                final var longs = buffer.asLongBuffer();
+                final var count = longs.remaining();
+                longs.get(array, index, count);
+                index += count;
+                buffer.position(count * Long.BYTES);
+                buffer.compact();
+                if (index == array.length) {
+                    break;
+                }
+            }
+            return reducer.sum(array);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.shiloh.multithread.lock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.shiloh.multithread.benchmark.Workload;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 11:10
+ * @description StampedLock乐观读{@link Point}
+ * Point与{@link StampedLockTests}中的Point实现相同，后者是辅助类，不能在源文件以外访问，所以这里保留一份
+ * 读比例越高，乐观读的优势越明显；写比例升高后validate()失败增多，会频繁退化为悲观读锁
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PointBenchmark {
+
+    @Param({"0", "50", "90", "99"})
+    public int readPercent;
+
+    private Point point;
+
+    @Setup
+    public void setup() {
+        point = new Point();
+    }
+
+    @Benchmark
+    public double stampedLockPoint() {
+        if (Workload.isRead(readPercent)) {
+            return point.distanceFromOrigin();
+        }
+        point.move(1, 1);
+        return 0;
+    }
+
+    /**
+     * 写入使用写锁，读取先尝试乐观读，validate()失败后退化为悲观读锁
+     */
+    private static class Point {
+
+        private final StampedLock stampedLock = new StampedLock();
+
+        private double x;
+
+        private double y;
+
+        public void move(double deltaX, double deltaY) {
+            final var stamp = stampedLock.writeLock();
+            try {
+                x += deltaX;
+                y += deltaY;
+            } finally {
+                stampedLock.unlockWrite(stamp);
+            }
+        }
+
+        public double distanceFromOrigin() {
+            var stamp = stampedLock.tryOptimisticRead();
+            double currentX = x;
+            double currentY = y;
+            if (!stampedLock.validate(stamp)) {
+                stamp = stampedLock.readLock();
+                try {
+                    currentX = x;
+                    currentY = y;
+                } finally {
+                    stampedLock.unlockRead(stamp);
+                }
+            }
+            return Math.sqrt(currentX * currentX + currentY * currentY);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.shiloh.multithread.lock.deadlock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 16:00
+ * @description 同时获取两个锁的几种写法对比：随机选取两个不同的账户转账
+ * nestedMonitors、nestedLocks是手写的嵌套加锁，按账户下标的大小决定加锁顺序，是不会死锁的“正确写法”的基准；
+ * {@link MultiLock}每次调用都新建一个实例，包含了排序、分配的开销，与实际使用时锁集合在运行时才确定的情况一致。
+ * accounts = 2时所有线程都在争抢同一对锁，BACKOFF策略冲突最频繁；accounts = 64时冲突较少
+ * <p>
+ * 单独运行：java -cp benchmarks/target/benchmarks.jar org.openjdk.jmh.Main MultiLock -t 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MultiLockBenchmark {
+
+    @Param({"2", "64"})
+    public int accounts;
+
+    private long[] balances;
+
+    private Object[] monitors;
+
+    private Lock[] locks;
+
+    @Setup
+    public void setup() {
+        balances = new long[accounts];
+        monitors = new Object[accounts];
+        locks = new Lock[accounts];
+        for (int i = 0; i < accounts; i++) {
+            monitors[i] = new Object();
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Benchmark
+    public void nestedMonitors() {
+        final var from = randomAccount();
+        final var to = otherAccount(from);
+        synchronized (monitors[Math.min(from, to)]) {
+            synchronized (monitors[Math.max(from, to)]) {
+                transfer(from, to);
+            }
+        }
+    }
+
+    @Benchmark
+    public void nestedLocks() {
+        final var from = randomAccount();
+        final var to = otherAccount(from);
+        final var first = locks[Math.min(from, to)];
+        final var second = locks[Math.max(from, to)];
+        first.lock();
+        try {
+            second.lock();
+            try {
+                transfer(from, to);
+            } finally {
+                second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    @Benchmark
+    public void synchronizedAll() {
+        final var from = randomAccount();
+        final var to = otherAccount(from);
+        MultiLock.synchronizedAll(() -> transfer(from, to), monitors[from], monitors[to]);
+    }
+
+    @Benchmark
+    public void multiLockOrdered() {
+        final var from = randomAccount();
+        final var to = otherAccount(from);
+        transferWith(MultiLock.ordered(locks[from], locks[to]), from, to);
+    }
+
+    @Benchmark
+    public void multiLockBackoff() {
+        final var from = randomAccount();
+        final var to = otherAccount(from);
+        transferWith(MultiLock.backoff(locks[from], locks[to]), from, to);
+    }
+
+    private void transferWith(Lock lock, int from, int to) {
+        lock.lock();
+        try {
+            transfer(from, to);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void transfer(int from, int to) {
+        balances[from]--;
+        balances[to]++;
+    }
+
+    private int randomAccount() {
+        return ThreadLocalRandom.current().nextInt(accounts);
+    }
+
+    private int otherAccount(int account) {
+        return (account + 1 + ThreadLocalRandom.current().nextInt(accounts - 1)) % accounts;
+    }
+}
@@ -0,0 +1,103 @@
+package org.shiloh.multithread.lock.readwritelock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.shiloh.multithread.benchmark.Workload;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 11:05
+ * @description ReadWriteLock保护的计数数组{@link ReadWriteLockCounter}与无锁计数数组{@link AtomicCounterArray}的对比
+ * ReadWriteLockCounter与{@link ReadWriteLockTests}中的Counter实现相同，后者是辅助类，不能在源文件以外访问，所以这里保留一份
+ * 写操作随机选择一个下标加1，读操作复制整个数组
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReadWriteLockCounterBenchmark {
+
+    @Param({"0", "50", "90", "99"})
+    public int readPercent;
+
+    private ReadWriteLockCounter counter;
+
+    private AtomicCounterArray atomicCounterArray;
+
+    @Setup
+    public void setup() {
+        counter = new ReadWriteLockCounter();
+        atomicCounterArray = new AtomicCounterArray(10);
+    }
+
+    @Benchmark
+    public int[] readWriteLockCounter() {
+        if (Workload.isRead(readPercent)) {
+            return counter.getCounts();
+        }
+        counter.increment(ThreadLocalRandom.current().nextInt(10));
+        return null;
+    }
+
+    @Benchmark
+    public long[] atomicCounterArrayEventual() {
+        if (Workload.isRead(readPercent)) {
+            return atomicCounterArray.snapshot(AtomicCounterArray.Consistency.EVENTUAL);
+        }
+        atomicCounterArray.increment(ThreadLocalRandom.current().nextInt(10));
+        return null;
+    }
+
+    @Benchmark
+    public long[] atomicCounterArrayConsistent() {
+        if (Workload.isRead(readPercent)) {
+            return atomicCounterArray.snapshot(AtomicCounterArray.Consistency.CONSISTENT);
+        }
+        atomicCounterArray.increment(ThreadLocalRandom.current().nextInt(10));
+        return null;
+    }
+
+    /**
+     * ReadWriteLock保护的计数数组
+     */
+    private static class ReadWriteLockCounter {
+
+        private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+        private final Lock readLock = readWriteLock.readLock();
+
+        private final Lock writeLock = readWriteLock.writeLock();
+
+        private final int[] counts = new int[10];
+
+        public void increment(int index) {
+            writeLock.lock();
+            try {
+                counts[index] += 1;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        public int[] getCounts() {
+            readLock.lock();
+            try {
+                return Arrays.copyOf(counts, counts.length);
+            } finally {
+                readLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.shiloh.multithread.lock.reentrantlock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.shiloh.multithread.benchmark.Workload;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 11:00
+ * @description synchronized代码块{@link SynchronizedCounter}与ReentrantLock{@link LockCounter}的对比
+ * 两个计数器与{@link ReentrantLockTest}中的Counter01、Counter02实现相同，它们是辅助类，不能在源文件以外访问，所以这里各自保留一份
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReentrantLockCounterBenchmark {
+
+    @Param({"0", "50", "90", "99"})
+    public int readPercent;
+
+    private SynchronizedCounter synchronizedCounter;
+
+    private LockCounter lockCounter;
+
+    @Setup
+    public void setup() {
+        synchronizedCounter = new SynchronizedCounter();
+        lockCounter = new LockCounter();
+    }
+
+    @Benchmark
+    public int synchronizedCounter() {
+        if (Workload.isRead(readPercent)) {
+            return synchronizedCounter.get();
+        }
+        synchronizedCounter.add(1);
+        return 0;
+    }
+
+    @Benchmark
+    public int reentrantLockCounter() {
+        if (Workload.isRead(readPercent)) {
+            return lockCounter.get();
+        }
+        lockCounter.add(1);
+        return 0;
+    }
+
+    /**
+     * synchronized代码块保护的计数器
+     */
+    private static class SynchronizedCounter {
+
+        private int count;
+
+        public void add(int val) {
+            synchronized (this) {
+                this.count += val;
+            }
+        }
+
+        public int get() {
+            synchronized (this) {
+                return this.count;
+            }
+        }
+    }
+
+    /**
+     * ReentrantLock保护的计数器
+     */
+    private static class LockCounter {
+
+        private final Lock lock = new ReentrantLock();
+
+        private int count;
+
+        public void add(int val) {
+            lock.lock();
+            try {
+                this.count += val;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int get() {
+            lock.lock();
+            try {
+                return this.count;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
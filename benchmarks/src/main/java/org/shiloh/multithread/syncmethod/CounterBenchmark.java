@@ -0,0 +1,55 @@
+package org.shiloh.multithread.syncmethod;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.shiloh.multithread.benchmark.Workload;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 10:55
+ * @description synchronized同步方法{@link Counter}与分段计数器{@link StripedCounter}的对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CounterBenchmark {
+
+    @Param({"0", "50", "90", "99"})
+    public int readPercent;
+
+    private Counter counter;
+
+    private StripedCounter stripedCounter;
+
+    @Setup
+    public void setup() {
+        counter = new Counter();
+        stripedCounter = new StripedCounter();
+    }
+
+    @Benchmark
+    public long synchronizedCounter() {
+        if (Workload.isRead(readPercent)) {
+            return counter.get();
+        }
+        counter.add(1);
+        return 0;
+    }
+
+    @Benchmark
+    public long stripedCounter() {
+        if (Workload.isRead(readPercent)) {
+            return stripedCounter.get();
+        }
+        stripedCounter.add(1);
+        return 0;
+    }
+}
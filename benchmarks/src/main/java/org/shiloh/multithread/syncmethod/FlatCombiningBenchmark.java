@@ -0,0 +1,110 @@
+package org.shiloh.multithread.syncmethod;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 18:05
+ * @description 同一个非线程安全的数据结构，分别用synchronized、ReentrantLock和{@link FlatCombiner}保护时的吞吐量对比
+ * structure = counter：临界区只有一次long累加，与{@link Counter}相同；
+ * structure = priorityQueue：一个保持约1000个元素的PriorityQueue，随机offer或poll，临界区更长，访问的内存也更多。
+ * 平铺合并在线程少时比直接加锁慢，线程越多、竞争越激烈越有优势，
+ * 交叉点需要用BenchmarkRunner按1~32个线程依次运行后对照：
+ * java -jar benchmarks/target/benchmarks.jar FlatCombining
+ * <p>
+ * 单独运行：java -cp benchmarks/target/benchmarks.jar org.openjdk.jmh.Main FlatCombining -t 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FlatCombiningBenchmark {
+
+    private static final int QUEUE_SIZE = 1000;
+
+    @Param({"counter", "priorityQueue"})
+    public String structure;
+
+    private Object monitorState;
+
+    private ReentrantLock lock;
+
+    private Object lockState;
+
+    private FlatCombiner<Object> combiner;
+
+    private Function<Object, Object> operation;
+
+    @Setup
+    public void setup() {
+        monitorState = newState();
+        lock = new ReentrantLock();
+        lockState = newState();
+        combiner = new FlatCombiner<>(newState());
+        operation = "counter".equals(structure) ? FlatCombiningBenchmark::increment : FlatCombiningBenchmark::offerOrPoll;
+    }
+
+    @Benchmark
+    public Object synchronizedLock() {
+        synchronized (monitorState) {
+            return operation.apply(monitorState);
+        }
+    }
+
+    @Benchmark
+    public Object reentrantLock() {
+        lock.lock();
+        try {
+            return operation.apply(lockState);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Benchmark
+    public Object flatCombining() {
+        return combiner.apply(operation);
+    }
+
+    private Object newState() {
+        if ("counter".equals(structure)) {
+            return new long[1];
+        }
+        final var queue = new PriorityQueue<Integer>();
+        for (int i = 0; i < QUEUE_SIZE; i++) {
+            queue.offer(ThreadLocalRandom.current().nextInt());
+        }
+        return queue;
+    }
+
+    private static Object increment(Object state) {
+        return ++((long[]) state)[0];
+    }
+
+    /**
+     * 元素少于QUEUE_SIZE时倾向于offer，多于时倾向于poll，让队列大小维持在QUEUE_SIZE附近。
+     * 平铺合并时operation在合并者线程中执行，ThreadLocalRandom.current()取到的是合并者自己的生成器，依然是安全的
+     */
+    @SuppressWarnings("unchecked")
+    private static Object offerOrPoll(Object state) {
+        final var queue = (PriorityQueue<Integer>) state;
+        final var random = ThreadLocalRandom.current();
+        if (random.nextInt(2 * QUEUE_SIZE) >= queue.size()) {
+            queue.offer(random.nextInt());
+            return null;
+        }
+        return queue.poll();
+    }
+}
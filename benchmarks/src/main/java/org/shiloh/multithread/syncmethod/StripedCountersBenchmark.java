@@ -0,0 +1,94 @@
+package org.shiloh.multithread.syncmethod;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.shiloh.multithread.benchmark.Workload;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 17:10
+ * @description 1024个计数器随机读写，一把锁保护整个HashMap（ThreadSyncTest03中使用同一个LOCK的写法）
+ * 与{@link StripedCounters}的对比。ConcurrentHashMap + LongAdder为每个key创建一个LongAdder，作为“每个key一个对象”的参照
+ * <p>
+ * 单独运行：java -cp benchmarks/target/benchmarks.jar org.openjdk.jmh.Main StripedCounters -t 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StripedCountersBenchmark {
+
+    private static final int KEYS = 1024;
+
+    @Param({"0", "50", "90", "99"})
+    public int readPercent;
+
+    private Integer[] keys;
+
+    private Map<Integer, long[]> singleLockCounters;
+
+    private StripedCounters<Integer> stripedCounters;
+
+    private ConcurrentHashMap<Integer, LongAdder> adders;
+
+    @Setup
+    public void setup() {
+        keys = new Integer[KEYS];
+        singleLockCounters = new HashMap<>();
+        stripedCounters = new StripedCounters<>();
+        adders = new ConcurrentHashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = i;
+            singleLockCounters.put(keys[i], new long[1]);
+            stripedCounters.increment(keys[i]);
+            adders.computeIfAbsent(keys[i], key -> new LongAdder()).increment();
+        }
+    }
+
+    @Benchmark
+    public long singleLock() {
+        final var key = randomKey();
+        synchronized (singleLockCounters) {
+            final var cell = singleLockCounters.get(key);
+            if (Workload.isRead(readPercent)) {
+                return cell[0];
+            }
+            return cell[0] += 1;
+        }
+    }
+
+    @Benchmark
+    public long stripedCounters() {
+        final var key = randomKey();
+        if (Workload.isRead(readPercent)) {
+            return stripedCounters.get(key);
+        }
+        return stripedCounters.increment(key);
+    }
+
+    @Benchmark
+    public long concurrentHashMapLongAdder() {
+        final var key = randomKey();
+        if (Workload.isRead(readPercent)) {
+            return adders.get(key).sum();
+        }
+        adders.computeIfAbsent(key, k -> new LongAdder()).increment();
+        return 0;
+    }
+
+    private Integer randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+}
@@ -0,0 +1,75 @@
+package org.shiloh.multithread.threadpool.scheduled;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 22:40
+ * @description JDK的{@link ScheduledThreadPoolExecutor}与时间轮{@link HashedWheelScheduler}的对比
+ * 调度器中预先放入pending个1小时后才到期的任务，然后测量“提交一个1~60秒的超时再立即取消”的吞吐量，
+ * 模拟绝大多数超时都会在到期前被取消的场景。
+ * JDK调度器开启了removeOnCancel，否则被取消的任务会一直留在堆中，pending会不断增长。
+ * <p>
+ * 单独运行：java -cp benchmarks/target/benchmarks.jar org.openjdk.jmh.Main SchedulerBenchmark -t 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SchedulerBenchmark {
+
+    private static final Runnable NOOP = () -> {
+    };
+
+    @Param({"jdk", "wheel"})
+    public String scheduler;
+
+    @Param({"10000", "100000", "1000000"})
+    public int pending;
+
+    private ScheduledExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if ("jdk".equals(scheduler)) {
+            final var jdk = new ScheduledThreadPoolExecutor(4);
+            jdk.setRemoveOnCancelPolicy(true);
+            executor = jdk;
+        } else {
+            executor = new HashedWheelScheduler(4);
+        }
+        final var random = ThreadLocalRandom.current();
+        for (int i = 0; i < pending; i++) {
+            executor.schedule(NOOP, 3600_000 + random.nextLong(60_000), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public ScheduledFuture<?> scheduleAndCancel() {
+        final var future = executor.schedule(NOOP, 1000 + ThreadLocalRandom.current().nextLong(59_000),
+                TimeUnit.MILLISECONDS);
+        future.cancel(false);
+        return future;
+    }
+}
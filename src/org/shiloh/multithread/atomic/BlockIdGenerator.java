@@ -0,0 +1,102 @@
+package org.shiloh.multithread.atomic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 16:20
+ * @description 按号段分配的ID生成器
+ * {@link IdGenerator}每生成1个ID都要对同一个AtomicLong执行incrementAndGet()，所有线程都在争抢同一个缓存行。
+ * BlockIdGenerator让每个线程一次领取blockSize个连续的ID（号段）放在ThreadLocal中，
+ * 号段用完之前生成ID只是对线程私有变量加1，完全没有竞争；号段用完后才对共享的AtomicLong执行1次getAndAdd()领取下一段。
+ * <p>
+ * 持久化：全局领取的位置超过已保存的高水位时，先把高水位提高leaseSize并保存到{@link HighWaterMarkStore}，再发放号段，
+ * 所以平均每leaseSize个ID才写一次盘。重启后从保存的高水位开始，保证新ID大于重启前发出的所有ID。
+ * <p>
+ * 注意：每个线程发出的ID是递增的，但不同线程之间的ID不是按生成时间递增的，
+ * 线程退出、进程重启时未用完的号段会被丢弃，ID不连续。
+ */
+public class BlockIdGenerator {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    public static final long DEFAULT_LEASE_SIZE = 1 << 20;
+
+    /**
+     * 下一个可领取的ID
+     */
+    private final AtomicLong next;
+
+    private final int blockSize;
+
+    private final long leaseSize;
+
+    private final HighWaterMarkStore store;
+
+    /**
+     * 已保存的高水位，发出的ID都小于该值
+     */
+    private volatile long limit;
+
+    /**
+     * 当前线程的号段：[0]为下一个ID，[1]为号段的结束位置（不包含）
+     */
+    private final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[2]);
+
+    public BlockIdGenerator() throws IOException {
+        this(HighWaterMarkStore.NONE, DEFAULT_BLOCK_SIZE, DEFAULT_LEASE_SIZE);
+    }
+
+    /**
+     * @param store     高水位存储
+     * @param blockSize 每个线程每次领取的ID数量
+     * @param leaseSize 每次提高高水位的幅度，不能小于blockSize
+     */
+    public BlockIdGenerator(HighWaterMarkStore store, int blockSize, long leaseSize) throws IOException {
+        if (blockSize <= 0 || leaseSize < blockSize) {
+            throw new IllegalArgumentException("require 0 < blockSize <= leaseSize");
+        }
+        this.store = store;
+        this.blockSize = blockSize;
+        this.leaseSize = leaseSize;
+        // 与IdGenerator一致，第1个ID为1
+        final var start = Math.max(store.load(), 1);
+        this.next = new AtomicLong(start);
+        this.limit = start;
+    }
+
+    public long getNextId() {
+        final var block = blocks.get();
+        if (block[0] == block[1]) {
+            refill(block);
+        }
+        return block[0]++;
+    }
+
+    private void refill(long[] block) {
+        final var start = next.getAndAdd(blockSize);
+        final var end = start + blockSize;
+        if (end > limit) {
+            extendLease(end);
+        }
+        block[0] = start;
+        block[1] = end;
+    }
+
+    private synchronized void extendLease(long end) {
+        if (end <= limit) {
+            // 其他线程已经提高了高水位
+            return;
+        }
+        final var newLimit = end + leaseSize;
+        try {
+            store.store(newLimit);
+        } catch (IOException e) {
+            // 保存失败时不能发出这个号段，号段作废，下次调用重新领取
+            throw new UncheckedIOException("failed to persist id high-water mark", e);
+        }
+        limit = newLimit;
+    }
+}
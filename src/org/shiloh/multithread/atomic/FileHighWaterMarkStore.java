@@ -0,0 +1,50 @@
+package org.shiloh.multithread.atomic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 16:15
+ * @description 把高水位以文本形式保存在本地文件中
+ * 先写入同目录下的临时文件并force()落盘，再通过原子重命名替换正式文件，
+ * 这样即使在写入过程中进程崩溃，正式文件也只会是旧值或新值，不会出现写了一半的内容。
+ */
+public class FileHighWaterMarkStore implements HighWaterMarkStore {
+
+    private final Path path;
+
+    private final Path tempPath;
+
+    public FileHighWaterMarkStore(Path path) {
+        this.path = path.toAbsolutePath();
+        this.tempPath = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+    }
+
+    @Override
+    public long load() throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(path, StandardCharsets.UTF_8).trim());
+    }
+
+    @Override
+    public void store(long mark) throws IOException {
+        try (var channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final var buffer = ByteBuffer.wrap(Long.toString(mark).getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
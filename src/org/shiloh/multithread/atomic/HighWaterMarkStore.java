@@ -0,0 +1,37 @@
+package org.shiloh.multithread.atomic;
+
+import java.io.IOException;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 16:10
+ * @description ID生成器的高水位持久化
+ * 生成器每次向前预留一段ID（或一段时间）之前，先把预留的上限保存下来，保证已经发出的ID都小于保存的值。
+ * 进程重启后从保存的值开始继续生成，即使上次预留的ID没有用完，新生成的ID也一定大于重启前发出的所有ID。
+ */
+public interface HighWaterMarkStore {
+
+    /**
+     * 不做持久化，重启后从0开始
+     */
+    HighWaterMarkStore NONE = new HighWaterMarkStore() {
+        @Override
+        public long load() {
+            return 0;
+        }
+
+        @Override
+        public void store(long mark) {
+        }
+    };
+
+    /**
+     * @return 上次保存的高水位，从未保存过时返回0
+     */
+    long load() throws IOException;
+
+    /**
+     * 保存高水位，方法返回时必须已经落盘
+     */
+    void store(long mark) throws IOException;
+}
@@ -0,0 +1,154 @@
+package org.shiloh.multithread.atomic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 16:35
+ * @description 雪花算法（Snowflake）ID生成器：多个节点各自生成ID，不需要任何协调也不会重复
+ * 64位ID的组成：1位符号位（始终为0） + 41位毫秒时间戳（相对{@link #EPOCH}，约可使用69年） + 10位节点ID + 12位序列号，
+ * 即每个节点每毫秒最多生成4096个ID。
+ * <p>
+ * “上一次的时间戳 + 序列号”打包保存在1个AtomicLong中，通过CAS一次性更新，不需要加锁：
+ * 1.当前时间大于上一次的时间戳：使用当前时间，序列号从0开始；
+ * 2.否则（同一毫秒内，或者系统时钟被回拨）：沿用上一次的时间戳，序列号加1；
+ * 3.序列号用完时：借用下一毫秒，但ID中的时间戳最多只能超前{@link #MAX_DRIFT_MILLIS}毫秒，
+ * 超出后等待系统时钟前进，因此每毫秒超过4096个ID的持续请求会被限速，而不是让时间戳无限地跑到真实时间前面。
+ * 因此同一个节点生成的ID总是严格递增的，时钟回拨时也不会重复，代价是ID中的时间戳可能略微超前于真实时间。
+ * 时钟回拨后同样沿用上一次的时间戳，序列号用完时等待时钟追上来。
+ * <p>
+ * 持久化：ID中的时间戳达到已保存的高水位时，先把高水位向后延长leaseMillis毫秒并保存，
+ * 重启后时间戳从保存的高水位开始，即使机器重启期间时钟被回拨，也不会生成重复的ID。
+ * 在租期内重启时，时间戳会比真实时间超前最多leaseMillis毫秒，这是持久化本身的代价，
+ * {@link #MAX_DRIFT_MILLIS}只限制序列号用完时的借用：借用以系统时钟和重启时加载的高水位中较大的一个为基准，
+ * 保存的高水位最多比这个基准超前leaseMillis + MAX_DRIFT_MILLIS毫秒，不会随着请求量无限增长。
+ */
+public class SnowflakeIdGenerator {
+
+    /**
+     * 起始时间：2021-01-01 00:00:00 UTC
+     */
+    public static final long EPOCH = 1609459200000L;
+
+    public static final long DEFAULT_LEASE_MILLIS = 10_000L;
+
+    private static final int WORKER_BITS = 10;
+
+    private static final int SEQUENCE_BITS = 12;
+
+    public static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int TIMESTAMP_SHIFT = WORKER_BITS + SEQUENCE_BITS;
+
+    /**
+     * 序列号用完时，ID中的时间戳最多可以超前基准时间的毫秒数，基准时间为系统时钟与重启时加载的高水位中较大的一个
+     */
+    public static final long MAX_DRIFT_MILLIS = 5;
+
+    /**
+     * 等待系统时钟前进时每次休眠的纳秒数
+     */
+    private static final long WAIT_NANOS = 100_000L;
+
+    /**
+     * 上一次的时间戳左移{@link #SEQUENCE_BITS}位 | 上一次的序列号
+     */
+    private final AtomicLong state;
+
+    private final long workerId;
+
+    private final HighWaterMarkStore store;
+
+    private final long leaseMillis;
+
+    /**
+     * 已保存的时间戳高水位，发出的ID的时间戳都小于该值
+     */
+    private volatile long leaseUntil;
+
+    /**
+     * 启动时加载的高水位，启动后的时间戳都不小于它
+     */
+    private final long startFloor;
+
+    public SnowflakeIdGenerator(long workerId) throws IOException {
+        this(workerId, HighWaterMarkStore.NONE, DEFAULT_LEASE_MILLIS);
+    }
+
+    /**
+     * @param workerId    节点ID，范围0 ~ {@link #MAX_WORKER_ID}，每个节点必须不同
+     * @param store       时间戳高水位存储
+     * @param leaseMillis 每次延长高水位的毫秒数
+     */
+    public SnowflakeIdGenerator(long workerId, HighWaterMarkStore store, long leaseMillis) throws IOException {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId must be between 0 and " + MAX_WORKER_ID);
+        }
+        if (leaseMillis <= 0) {
+            throw new IllegalArgumentException("leaseMillis must be positive: " + leaseMillis);
+        }
+        this.workerId = workerId;
+        this.store = store;
+        this.leaseMillis = leaseMillis;
+        final var mark = store.load();
+        this.leaseUntil = mark;
+        this.startFloor = mark;
+        // 假装上一毫秒的序列号已经用完，下一个ID的时间戳至少为mark
+        this.state = new AtomicLong(mark > 0 ? ((mark - 1) << SEQUENCE_BITS) | SEQUENCE_MASK : 0);
+    }
+
+    public long getNextId() {
+        while (true) {
+            final var current = state.get();
+            final var lastTimestamp = current >>> SEQUENCE_BITS;
+            final var now = System.currentTimeMillis() - EPOCH;
+            final long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((current & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = current + 1;
+            } else if (lastTimestamp + 1 - Math.max(now, startFloor) <= MAX_DRIFT_MILLIS) {
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            } else {
+                // 已经超前太多，等待系统时钟前进后重试
+                LockSupport.parkNanos(WAIT_NANOS);
+                continue;
+            }
+            final var timestamp = next >>> SEQUENCE_BITS;
+            if (timestamp >= leaseUntil) {
+                extendLease(timestamp);
+            }
+            if (state.compareAndSet(current, next)) {
+                return (timestamp << TIMESTAMP_SHIFT) | (workerId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * ID中的毫秒时间戳（Unix时间）
+     *
+     * @author shiloh
+     * @date 2026/10/19 18:30
+     */
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+
+    private synchronized void extendLease(long timestamp) {
+        if (timestamp < leaseUntil) {
+            return;
+        }
+        final var newLease = timestamp + leaseMillis;
+        try {
+            store.store(newLease);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to persist id high-water mark", e);
+        }
+        leaseUntil = newLease;
+    }
+}
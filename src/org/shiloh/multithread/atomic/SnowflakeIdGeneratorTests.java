@@ -0,0 +1,68 @@
+package org.shiloh.multithread.atomic;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 18:35
+ * @description 雪花算法ID生成器测试
+ * 1.4个线程不停地生成ID，远超每毫秒4096个的上限，检查ID中的时间戳超前系统时钟的最大值不超过
+ * {@link SnowflakeIdGenerator#MAX_DRIFT_MILLIS}，并且同一个线程拿到的ID严格递增；
+ * 2.用同一个高水位文件重新创建生成器，模拟进程重启，重启后生成的ID都大于重启前生成的所有ID
+ */
+public class SnowflakeIdGeneratorTests {
+
+    private static final int IDS_PER_THREAD = 500_000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final var file = Files.createTempFile("snowflake", ".mark");
+        Files.delete(file);
+        final var store = new FileHighWaterMarkStore(file);
+        final var generator = new SnowflakeIdGenerator(1, store, 100);
+
+        final var maxId = new AtomicLong();
+        final var maxDrift = new AtomicLong();
+        final var increasing = new boolean[]{true};
+        final var threads = new ArrayList<Thread>();
+        final var start = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            final var thread = new Thread(() -> {
+                var previous = 0L;
+                for (int j = 0; j < IDS_PER_THREAD; j++) {
+                    final var id = generator.getNextId();
+                    final var drift = SnowflakeIdGenerator.timestampOf(id) - System.currentTimeMillis();
+                    maxDrift.accumulateAndGet(drift, Math::max);
+                    if (id <= previous) {
+                        increasing[0] = false;
+                    }
+                    previous = id;
+                    maxId.accumulateAndGet(id, Math::max);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        final var elapsed = System.currentTimeMillis() - start;
+        System.out.println("生成" + 4 * IDS_PER_THREAD + "个ID耗时：" + elapsed + "ms，理论最少"
+                + 4 * IDS_PER_THREAD / 4096 + "ms");
+        System.out.println("最大超前：" + maxDrift.get() + "ms，上限" + SnowflakeIdGenerator.MAX_DRIFT_MILLIS
+                + "ms，各线程ID严格递增：" + increasing[0]);
+
+        // 模拟重启：重新加载保存的高水位
+        System.out.println("保存的高水位超前：" + (store.load() + SnowflakeIdGenerator.EPOCH - System.currentTimeMillis())
+                + "ms");
+        final var restarted = new SnowflakeIdGenerator(1, store, 100);
+        var smallest = Long.MAX_VALUE;
+        for (int i = 0; i < 100_000; i++) {
+            smallest = Math.min(smallest, restarted.getNextId());
+        }
+        System.out.println("重启后的最小ID > 重启前的最大ID：" + (smallest > maxId.get()));
+        Files.deleteIfExists(file);
+    }
+}
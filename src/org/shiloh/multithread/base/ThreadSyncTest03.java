@@ -4,6 +4,7 @@ package org.shiloh.multithread.base;
  * @author lxlei
  * @date 2021/1/26 12:11
  * @description 线程同步：错误示范2
+ * @see org.shiloh.multithread.syncmethod.StripedCounters 计数器数量在运行时才确定时，按key分段加锁
  */
 public class ThreadSyncTest03 {
 
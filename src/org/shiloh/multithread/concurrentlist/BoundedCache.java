@@ -0,0 +1,562 @@
+package org.shiloh.multithread.concurrentlist;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 13:30
+ * @description 基于{@link ConcurrentHashMap}、使用W-TinyLFU淘汰策略的有界缓存
+ * 直接把ConcurrentHashMap当作缓存使用时没有淘汰，数据只增不减，最终耗尽堆内存。
+ * <p>
+ * 数据保存在ConcurrentHashMap中，读写数据不受淘汰策略影响；淘汰策略需要维护的链表和频率统计只由持有{@link #evictionLock}的线程修改：
+ * 1.读操作把被访问的节点放入分段的无锁缓冲区{@link ReadBuffer}，缓冲区满时才尝试获取锁批量处理，不会每次读都加锁；
+ * 2.写操作把“加入链表”“调整权重”“移出链表”等任务放入写缓冲区，随后尝试获取锁处理，
+ * 拿不到锁说明其他线程正在处理，由它在释放锁后继续处理；积压过多时写线程会阻塞等待，防止缓存长时间超出容量。
+ * <p>
+ * W-TinyLFU（Window TinyLFU）：
+ * 1.新条目先进入窗口区（window，占总容量的1%，LRU），用于容纳突发的新数据；
+ * 2.被挤出窗口区的条目进入主区的试用区（probation）。主区容量不足时，用{@link FrequencySketch}比较
+ * “刚从窗口区进来的候选者”和“试用区最久未访问的条目”的历史访问频率，频率低的被淘汰——
+ * 只访问一次的数据无法挤掉真正的热点数据，这是它比单纯的LRU命中率更高的原因；
+ * 3.试用区中再次被访问的条目晋升到保护区（protected，占主区的80%），保护区满时最久未访问的条目降级回试用区。
+ * <p>
+ * 其他说明：
+ * 1.容量按权重计算，见{@link Weigher}，默认每个条目权重为1；
+ * 2.{@link #get(Object, Function)}和{@link #getAsync(Object, Function)}对同一个key只会同时加载一次，
+ * 同步加载直接使用ConcurrentHashMap.computeIfAbsent()，异步加载时正在加载的key记录在{@link #loading}中；
+ * 3.淘汰是异步批量进行的，权重之和可能短暂地超过maximumWeight；
+ * 4.key和value都不能为null。
+ */
+public class BoundedCache<K, V> {
+
+    /**
+     * 写缓冲区积压超过这个数量时，写线程阻塞等待淘汰锁
+     */
+    private static final int MAX_PENDING_WRITES = 1024;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+    /**
+     * 正在加载的key
+     */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final Weigher<? super K, ? super V> weigher;
+
+    private final ReadBuffer<Node<K, V>> readBuffer = new ReadBuffer<>();
+
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder loadSuccesses = new LongAdder();
+
+    private final LongAdder loadFailures = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder evictionWeight = new LongAdder();
+
+    /**
+     * 以下字段只由持有evictionLock的线程修改
+     */
+    private final FrequencySketch sketch = new FrequencySketch();
+
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+
+    private final AccessOrderDeque<K, V> protectedDeque = new AccessOrderDeque<>();
+
+    private final long maximumWeight;
+
+    private final long windowMaximum;
+
+    private final long protectedMaximum;
+
+    private long windowWeight;
+
+    private long protectedWeight;
+
+    private volatile long totalWeight;
+
+    /**
+     * 最多保存maximumSize个条目
+     */
+    public BoundedCache(long maximumSize) {
+        this(maximumSize, Weigher.singleton());
+    }
+
+    /**
+     * @param maximumWeight 所有条目的权重之和的上限
+     */
+    public BoundedCache(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+        }
+        this.weigher = Objects.requireNonNull(weigher);
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * 8 / 10;
+        this.sketch.ensureCapacity(Math.min(maximumWeight, 1 << 16));
+    }
+
+    public V getIfPresent(K key) {
+        final var node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        afterRead(node);
+        return node.value;
+    }
+
+    /**
+     * 缓存中不存在时在当前线程中调用loader加载，与{@link ConcurrentHashMap#computeIfAbsent}一样，
+     * 其他线程同时获取同一个key时等待这次加载的结果，loader应尽量简短，并且不能再访问这个缓存
+     *
+     * @return 加载结果，loader返回null时不缓存并返回null
+     * @author shiloh
+     * @date 2026/10/19 13:50
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        final var value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        final var added = new boolean[1];
+        final Node<K, V> node;
+        try {
+            node = data.computeIfAbsent(key, k -> {
+                final V loaded = loader.apply(k);
+                if (loaded == null) {
+                    return null;
+                }
+                added[0] = true;
+                return new Node<>(k, loaded, weigh(k, loaded));
+            });
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            throw e;
+        }
+        if (!added[0]) {
+            // 其他线程已经加载完成，或者loader返回了null
+            return node == null ? null : node.value;
+        }
+        loadSuccesses.increment();
+        afterWrite(() -> onAdd(node));
+        return node.value;
+    }
+
+    /**
+     * 缓存中不存在时调用loader发起异步加载，其他线程同时获取同一个key时共享这次加载
+     * 返回的是共享结果的副本，调用方取消它不会影响其他调用方
+     *
+     * @author shiloh
+     * @date 2026/10/19 13:55
+     */
+    public CompletableFuture<V> getAsync(K key, Function<? super K, ? extends CompletableFuture<? extends V>> loader) {
+        final var value = getIfPresent(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        final var promise = new CompletableFuture<V>();
+        final var existing = loading.putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing.copy();
+        }
+        try {
+            loader.apply(key).whenComplete((loaded, e) -> complete(key, promise, loaded, e));
+        } catch (RuntimeException | Error e) {
+            complete(key, promise, null, e);
+        }
+        return promise.copy();
+    }
+
+    private void complete(K key, CompletableFuture<V> promise, V value, Throwable e) {
+        if (e == null) {
+            loadSuccesses.increment();
+            if (value != null) {
+                // 先放入缓存再移出loading，其他线程要么看到正在加载，要么看到已缓存的值
+                put(key, value);
+            }
+            loading.remove(key, promise);
+            promise.complete(value);
+        } else {
+            loadFailures.increment();
+            loading.remove(key, promise);
+            promise.completeExceptionally(e);
+        }
+    }
+
+    public void put(K key, V value) {
+        Objects.requireNonNull(value);
+        final var weight = weigh(key, value);
+        final var added = new boolean[1];
+        // 在compute中修改，与淘汰时的data.remove(key, node)互斥，不会出现更新了一个刚被淘汰的节点的情况
+        final var node = data.compute(key, (k, existing) -> {
+            if (existing == null) {
+                added[0] = true;
+                return new Node<>(k, value, weight);
+            }
+            existing.value = value;
+            existing.pendingWeight = weight;
+            return existing;
+        });
+        if (added[0]) {
+            afterWrite(() -> onAdd(node));
+        } else {
+            afterWrite(() -> onUpdate(node));
+        }
+    }
+
+    private int weigh(K key, V value) {
+        final var weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative: " + weight);
+        }
+        return weight;
+    }
+
+    public V remove(K key) {
+        final var node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        node.retired = true;
+        afterWrite(() -> onRemove(node));
+        return node.value;
+    }
+
+    public void invalidateAll() {
+        for (K key : data.keySet()) {
+            remove(key);
+        }
+    }
+
+    /**
+     * 条目数量
+     */
+    public long estimatedSize() {
+        return data.size();
+    }
+
+    /**
+     * 已经计入淘汰策略的条目的权重之和
+     */
+    public long weightedSize() {
+        return totalWeight;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(), evictions.sum(),
+                evictionWeight.sum());
+    }
+
+    /**
+     * 立即处理所有积压的读写记录并执行淘汰
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void afterRead(Node<K, V> node) {
+        if (readBuffer.offer(node)) {
+            tryMaintenance();
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        if (pendingWrites.incrementAndGet() > MAX_PENDING_WRITES) {
+            // 处理速度跟不上写入速度，阻塞等待，给写操作施加背压
+            cleanUp();
+        }
+        tryMaintenance();
+    }
+
+    private void tryMaintenance() {
+        // 释放锁之后再检查一次：其他线程可能在当前线程持有锁期间放入了任务，它拿不到锁就直接返回了
+        while (evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+            if (writeBuffer.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 调用前必须持有evictionLock
+     */
+    private void maintenance() {
+        readBuffer.drainTo(this::onAccess);
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+        evict();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.queue == Node.NONE) {
+            // 已被移除，或者加入链表的任务还在写缓冲区中
+            return;
+        }
+        sketch.increment(node.key);
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.moveToBack(node);
+                break;
+            case Node.PROBATION:
+                // 试用区的条目再次被访问，晋升到保护区
+                probation.remove(node);
+                protectedDeque.addLast(node);
+                node.queue = Node.PROTECTED;
+                protectedWeight += node.weight;
+                demoteFromProtected();
+                break;
+            default:
+                protectedDeque.moveToBack(node);
+        }
+    }
+
+    private void onAdd(Node<K, V> node) {
+        if (node.retired) {
+            return;
+        }
+        sketch.increment(node.key);
+        node.weight = node.pendingWeight;
+        node.queue = Node.WINDOW;
+        window.addLast(node);
+        windowWeight += node.weight;
+        totalWeight += node.weight;
+        // 根据条目数量调整频率统计的大小
+        sketch.ensureCapacity(data.size());
+        if (node.weight > maximumWeight) {
+            evictEntry(node);
+        }
+    }
+
+    private void onUpdate(Node<K, V> node) {
+        if (node.queue == Node.NONE) {
+            // 还没有加入链表，加入时会读取最新的权重
+            return;
+        }
+        final var delta = node.pendingWeight - node.weight;
+        node.weight = node.pendingWeight;
+        totalWeight += delta;
+        if (node.queue == Node.WINDOW) {
+            windowWeight += delta;
+        } else if (node.queue == Node.PROTECTED) {
+            protectedWeight += delta;
+        }
+        onAccess(node);
+    }
+
+    private void onRemove(Node<K, V> node) {
+        unlink(node);
+    }
+
+    private void demoteFromProtected() {
+        while (protectedWeight > protectedMaximum) {
+            final var demoted = protectedDeque.pollFirst();
+            if (demoted == null) {
+                return;
+            }
+            protectedWeight -= demoted.weight;
+            demoted.queue = Node.PROBATION;
+            probation.addLast(demoted);
+        }
+    }
+
+    private void evict() {
+        // 窗口区溢出的条目进入试用区的尾部，成为准入的候选者
+        while (windowWeight > windowMaximum) {
+            final var candidate = window.pollFirst();
+            if (candidate == null) {
+                break;
+            }
+            windowWeight -= candidate.weight;
+            candidate.queue = Node.PROBATION;
+            probation.addLast(candidate);
+        }
+        while (totalWeight > maximumWeight) {
+            final var victim = probation.peekFirst();
+            final var candidate = probation.peekLast();
+            if (victim == null) {
+                // 试用区为空，依次从保护区、窗口区淘汰
+                final var fallback = protectedDeque.peekFirst() != null ? protectedDeque.peekFirst() : window.peekFirst();
+                if (fallback == null) {
+                    return;
+                }
+                evictEntry(fallback);
+            } else if (victim == candidate) {
+                evictEntry(victim);
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                // TinyLFU准入：候选者的历史访问频率更高，淘汰最久未访问的条目
+                evictEntry(victim);
+            } else {
+                evictEntry(candidate);
+            }
+        }
+    }
+
+    private void evictEntry(Node<K, V> node) {
+        unlink(node);
+        if (data.remove(node.key, node)) {
+            node.retired = true;
+            evictions.increment();
+            evictionWeight.add(node.weight);
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.remove(node);
+                windowWeight -= node.weight;
+                break;
+            case Node.PROBATION:
+                probation.remove(node);
+                break;
+            case Node.PROTECTED:
+                protectedDeque.remove(node);
+                protectedWeight -= node.weight;
+                break;
+            default:
+                return;
+        }
+        node.queue = Node.NONE;
+        totalWeight -= node.weight;
+    }
+
+    /**
+     * 缓存条目，同时也是淘汰链表的节点
+     */
+    static final class Node<K, V> {
+
+        static final int NONE = 0;
+
+        static final int WINDOW = 1;
+
+        static final int PROBATION = 2;
+
+        static final int PROTECTED = 3;
+
+        final K key;
+
+        volatile V value;
+
+        /**
+         * 最新的权重，由写线程设置
+         */
+        volatile int pendingWeight;
+
+        /**
+         * 已被移除或淘汰
+         */
+        volatile boolean retired;
+
+        /**
+         * 以下字段只由持有淘汰锁的线程读写
+         * 已经计入淘汰策略的权重
+         */
+        int weight;
+
+        int queue = NONE;
+
+        Node<K, V> prev;
+
+        Node<K, V> next;
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.pendingWeight = weight;
+        }
+    }
+
+    /**
+     * 以节点自身为元素的双向链表，头部是最久未访问的节点
+     */
+    static final class AccessOrderDeque<K, V> {
+
+        private Node<K, V> head;
+
+        private Node<K, V> tail;
+
+        Node<K, V> peekFirst() {
+            return head;
+        }
+
+        Node<K, V> peekLast() {
+            return tail;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        Node<K, V> pollFirst() {
+            final var node = head;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+}
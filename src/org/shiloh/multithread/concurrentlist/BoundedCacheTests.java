@@ -0,0 +1,119 @@
+package org.shiloh.multithread.concurrentlist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 14:30
+ * @description 有界缓存测试
+ * 1.命中率：对100万个key按Zipf分布访问，缓存容量1万，对比W-TinyLFU与LinkedHashMap实现的LRU；
+ * 2.并发：4个线程按Zipf分布读写，检查条目数量没有超过容量；
+ * 3.异步加载：同一个key同时发起多次加载，loader只被调用一次；
+ * 4.按权重限制容量：value为字符串，权重为字符串长度。
+ * <p>
+ * 吞吐量对比见benchmarks模块的BoundedCacheBenchmark
+ */
+public class BoundedCacheTests {
+
+    private static final int KEYS = 1_000_000;
+
+    private static final int CAPACITY = 10_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        final var zipf = new ZipfianGenerator(KEYS, 0.99);
+        compareHitRate(zipf);
+        concurrentAccess(zipf);
+        asyncLoading();
+        weightedSize();
+    }
+
+    private static void compareHitRate(ZipfianGenerator zipf) {
+        final var random = new Random(42);
+        final var cache = new BoundedCache<Long, Long>(CAPACITY);
+        final var lru = new LinkedHashMap<Long, Long>(CAPACITY, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > CAPACITY;
+            }
+        };
+        var lruHits = 0;
+        final var requests = 2_000_000;
+        for (int i = 0; i < requests; i++) {
+            final var key = zipf.next(random);
+            cache.get(key, k -> k);
+            if (lru.get(key) != null) {
+                lruHits++;
+            } else {
+                lru.put(key, key);
+            }
+        }
+        System.out.printf("hit rate: W-TinyLFU = %.4f, LRU = %.4f%n", cache.stats().getHitRate(),
+                (double) lruHits / requests);
+    }
+
+    private static void concurrentAccess(ZipfianGenerator zipf) throws InterruptedException {
+        final var cache = new BoundedCache<Long, Long>(CAPACITY);
+        final var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            final var seed = t;
+            threads.add(new Thread(() -> {
+                final var random = new Random(seed);
+                for (int i = 0; i < 500_000; i++) {
+                    final var key = zipf.next(random);
+                    if (random.nextInt(10) == 0) {
+                        cache.put(key, key);
+                    } else {
+                        cache.get(key, k -> k);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        cache.cleanUp();
+        System.out.printf("concurrent: size = %d, weightedSize = %d, %s%n", cache.estimatedSize(),
+                cache.weightedSize(), cache.stats());
+    }
+
+    private static void asyncLoading() {
+        final var cache = new BoundedCache<String, String>(100);
+        final var loads = new AtomicInteger();
+        final var futures = new ArrayList<CompletableFuture<String>>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(cache.getAsync("price", key -> CompletableFuture.supplyAsync(() -> {
+                loads.incrementAndGet();
+                sleep(200);
+                return key + "=100.0";
+            })));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        System.out.printf("async: value = %s, loads = %d, cached = %s%n", futures.get(0).join(), loads.get(),
+                cache.getIfPresent("price"));
+    }
+
+    private static void weightedSize() {
+        final var cache = new BoundedCache<Integer, String>(1000, (key, value) -> value.length());
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, String.join("", Collections.nCopies(i % 50 + 1, "x")));
+        }
+        cache.cleanUp();
+        System.out.printf("weighted: size = %d, weightedSize = %d (maximum 1000), evictions = %d%n",
+                cache.estimatedSize(), cache.weightedSize(), cache.stats().getEvictionCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * @author lxlei
  * @date 2021/1/27 10:18
  * @description 并发集合：ConcurrentHashMap测试
+ * @see ConcurrentLongLongMap 大量保存long -> long的条目时使用
  */
 public class ConcurrentHashMapTests {
 
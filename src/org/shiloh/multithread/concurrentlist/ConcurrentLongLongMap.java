@@ -0,0 +1,477 @@
+package org.shiloh.multithread.concurrentlist;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 11:30
+ * @description key和value都是long的并发哈希表
+ * {@link java.util.concurrent.ConcurrentHashMap}保存long -> long时，每个条目都需要1个Node对象和2个Long对象，
+ * 再加上table数组中的引用，一个条目要占用50 ~ 80字节，几亿个条目会让GC扫描和复制的对象数量非常多。
+ * <p>
+ * ConcurrentLongLongMap使用开放寻址（线性探测）把key和value交替存放在一块连续的long数组中，每个条目只占16字节（装载因子为75%时约21字节），
+ * 没有任何条目对象；开启offHeap后这块内存通过{@link ByteBuffer#allocateDirect(int)}分配在堆外，GC完全不需要扫描。
+ * <p>
+ * 并发控制：按key的哈希值分成若干段（segment），每段是一张独立的哈希表，由各自的{@link StampedLock}保护：
+ * 1.写操作获取所在段的写锁，不同段的写操作互不影响，扩容也只在段内进行；
+ * 2.读操作先乐观读，读完后校验期间没有发生写操作，失败再退化为读锁，读多写少时读操作几乎没有同步开销。
+ * 乐观读期间扩容可能替换段的table，table字段是volatile的：读到的新LongBuffer一定是构造完成、内容已经复制好的，
+ * 否则弱内存序的CPU上可能看到capacity、limit还没有初始化的对象，在校验之前就抛出IndexOutOfBoundsException，
+ * 堆外时甚至会按错误的地址读取内存（StampedLock的文档中也强调乐观读期间不能使用没有安全发布的引用）。
+ * <p>
+ * 其他说明：
+ * 1.key为0的槽位表示空槽位，key为0的条目单独保存在所在段的字段中；
+ * 2.删除时使用后移删除（backward shift deletion），不留下墓碑，删除再多也不会拖慢查找；
+ * 3.查找不到时返回构造时指定的noEntryValue，需要区分“不存在”与“值等于noEntryValue”时使用{@link #containsKey(long)}；
+ * 4.堆外内存由GC回收对应的ByteBuffer对象时释放，总量受-XX:MaxDirectMemorySize限制。
+ */
+public class ConcurrentLongLongMap {
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private static final long EMPTY = 0;
+
+    /**
+     * 每段最多2^26个槽位，堆外时一段占用1GB，不超过ByteBuffer的容量上限
+     */
+    private static final int MAX_SEGMENT_CAPACITY = 1 << 26;
+
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] segments;
+
+    private final int segmentMask;
+
+    private final long noEntryValue;
+
+    /**
+     * 堆内存储，段数为CPU核数 * 4，查找不到时返回0
+     */
+    public ConcurrentLongLongMap() {
+        this(0, Runtime.getRuntime().availableProcessors() * 4, false, 0);
+    }
+
+    /**
+     * @param expectedSize     预计的条目数量，用于计算每段的初始容量，避免频繁扩容
+     * @param concurrencyLevel 段数，会向上取整到2的幂
+     * @param offHeap          是否分配在堆外
+     * @param noEntryValue     查找不到时返回的值
+     */
+    public ConcurrentLongLongMap(long expectedSize, int concurrencyLevel, boolean offHeap, long noEntryValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be positive: " + concurrencyLevel);
+        }
+        final var segmentCount = concurrencyLevel == 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        final var perSegment = expectedSize / segmentCount * 4 / 3 + 1;
+        final var capacity = (int) Math.min(MAX_SEGMENT_CAPACITY,
+                Math.max(MIN_SEGMENT_CAPACITY, Long.highestOneBit(perSegment - 1) << 1));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(capacity, offHeap);
+        }
+        this.segmentMask = segmentCount - 1;
+        this.noEntryValue = noEntryValue;
+    }
+
+    public long get(long key) {
+        final var hash = hash(key);
+        final var segment = segmentFor(hash);
+        final var lock = segment.lock;
+        final var stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            final var value = segment.get(key, hash, noEntryValue);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        final var readStamp = lock.readLock();
+        try {
+            return segment.get(key, hash, noEntryValue);
+        } finally {
+            lock.unlockRead(readStamp);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        final var hash = hash(key);
+        final var segment = segmentFor(hash);
+        final var lock = segment.lock;
+        final var stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            final var contains = segment.containsKey(key, hash);
+            if (lock.validate(stamp)) {
+                return contains;
+            }
+        }
+        final var readStamp = lock.readLock();
+        try {
+            return segment.containsKey(key, hash);
+        } finally {
+            lock.unlockRead(readStamp);
+        }
+    }
+
+    /**
+     * @return 原来的值，原来不存在时返回noEntryValue
+     */
+    public long put(long key, long value) {
+        return put(key, value, false);
+    }
+
+    /**
+     * @return 原来的值（此时不会覆盖），原来不存在时放入value并返回noEntryValue
+     */
+    public long putIfAbsent(long key, long value) {
+        return put(key, value, true);
+    }
+
+    /**
+     * 原子地把key对应的值加上delta，不存在时视为0
+     *
+     * @return 相加之后的值
+     * @author shiloh
+     * @date 2026/10/19 11:50
+     */
+    public long addAndGet(long key, long delta) {
+        final var hash = hash(key);
+        final var segment = segmentFor(hash);
+        final var stamp = segment.lock.writeLock();
+        try {
+            return segment.addAndGet(key, hash, delta);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return 被删除的值，不存在时返回noEntryValue
+     */
+    public long remove(long key) {
+        final var hash = hash(key);
+        final var segment = segmentFor(hash);
+        final var stamp = segment.lock.writeLock();
+        try {
+            return segment.remove(key, hash, noEntryValue);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 各段的条目数之和，并发修改时是一个近似值
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            final var stamp = segment.lock.readLock();
+            try {
+                size += segment.size();
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            final var stamp = segment.lock.writeLock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * 逐段持有读锁遍历所有条目，遍历过程中其他段可能被修改，因此看到的不是整个表在某一时刻的快照
+     */
+    public void forEach(EntryConsumer action) {
+        for (Segment segment : segments) {
+            final var stamp = segment.lock.readLock();
+            try {
+                segment.forEach(action);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * 所有段的槽位数组占用的字节数（堆内或堆外）
+     */
+    public long footprintBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            final var stamp = segment.lock.readLock();
+            try {
+                bytes += (long) segment.table.capacity() * Long.BYTES;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return bytes;
+    }
+
+    private long put(long key, long value, boolean onlyIfAbsent) {
+        final var hash = hash(key);
+        final var segment = segmentFor(hash);
+        final var stamp = segment.lock.writeLock();
+        try {
+            return segment.put(key, hash, value, onlyIfAbsent, noEntryValue);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    private Segment segmentFor(long hash) {
+        // 高32位选择段，低32位选择槽位，两者互不相关
+        return segments[(int) (hash >>> 32) & segmentMask];
+    }
+
+    /**
+     * MurmurHash3的fmix64，连续的key也能均匀地分散到各个槽位
+     */
+    static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * 一段哈希表，所有方法都由调用方持有锁（乐观读时可能读到不一致的数据，由调用方校验后丢弃）
+     * 第i个槽位的key位于table[2 * i]，value位于table[2 * i + 1]
+     */
+    private static final class Segment {
+
+        final StampedLock lock = new StampedLock();
+
+        private final boolean offHeap;
+
+        private final int initialCapacity;
+
+        /**
+         * 乐观读不持有锁，必须是volatile，见类注释
+         */
+        private volatile LongBuffer table;
+
+        private int size;
+
+        private boolean hasZeroKey;
+
+        private long zeroValue;
+
+        Segment(int capacity, boolean offHeap) {
+            this.offHeap = offHeap;
+            this.initialCapacity = capacity;
+            this.table = allocate(capacity);
+        }
+
+        private LongBuffer allocate(int capacity) {
+            if (offHeap) {
+                // allocateDirect分配的内存已经清零，即所有槽位都是空的
+                return ByteBuffer.allocateDirect(capacity * 2 * Long.BYTES).order(ByteOrder.nativeOrder())
+                        .asLongBuffer();
+            }
+            return LongBuffer.wrap(new long[capacity * 2]);
+        }
+
+        int size() {
+            return hasZeroKey ? size + 1 : size;
+        }
+
+        long get(long key, long hash, long noEntryValue) {
+            if (key == EMPTY) {
+                return hasZeroKey ? zeroValue : noEntryValue;
+            }
+            final var table = this.table;
+            final var index = indexOf(table, key, hash);
+            return index < 0 ? noEntryValue : table.get(index + 1);
+        }
+
+        boolean containsKey(long key, long hash) {
+            if (key == EMPTY) {
+                return hasZeroKey;
+            }
+            return indexOf(table, key, hash) >= 0;
+        }
+
+        /**
+         * @return key在table中的下标，不存在时返回-1
+         */
+        private static int indexOf(LongBuffer table, long key, long hash) {
+            final var mask = (table.capacity() >>> 1) - 1;
+            var slot = (int) hash & mask;
+            // 乐观读时table可能正在被修改，限制探测次数，避免读到不一致的数据时死循环
+            for (int probes = 0; probes <= mask; probes++) {
+                final var current = table.get(slot << 1);
+                if (current == key) {
+                    return slot << 1;
+                }
+                if (current == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        long put(long key, long hash, long value, boolean onlyIfAbsent, long noEntryValue) {
+            if (key == EMPTY) {
+                final var previous = hasZeroKey ? zeroValue : noEntryValue;
+                if (!hasZeroKey || !onlyIfAbsent) {
+                    zeroValue = value;
+                }
+                hasZeroKey = true;
+                return previous;
+            }
+            final var index = indexOf(table, key, hash);
+            if (index >= 0) {
+                final var previous = table.get(index + 1);
+                if (!onlyIfAbsent) {
+                    table.put(index + 1, value);
+                }
+                return previous;
+            }
+            insert(key, hash, value);
+            return noEntryValue;
+        }
+
+        long addAndGet(long key, long hash, long delta) {
+            if (key == EMPTY) {
+                zeroValue = hasZeroKey ? zeroValue + delta : delta;
+                hasZeroKey = true;
+                return zeroValue;
+            }
+            final var index = indexOf(table, key, hash);
+            if (index >= 0) {
+                final var value = table.get(index + 1) + delta;
+                table.put(index + 1, value);
+                return value;
+            }
+            insert(key, hash, delta);
+            return delta;
+        }
+
+        private void insert(long key, long hash, long value) {
+            ensureCapacity();
+            final var table = this.table;
+            final var mask = (table.capacity() >>> 1) - 1;
+            var slot = (int) hash & mask;
+            while (table.get(slot << 1) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table.put(slot << 1, key);
+            table.put((slot << 1) + 1, value);
+            size++;
+        }
+
+        /**
+         * 条目数达到槽位数的3/4时扩容为2倍，已经是最大容量时继续填充，只剩1个空槽位时拒绝插入
+         */
+        private void ensureCapacity() {
+            final var capacity = table.capacity() >>> 1;
+            if (size < capacity - (capacity >>> 2)) {
+                return;
+            }
+            if (capacity < MAX_SEGMENT_CAPACITY) {
+                rehash(capacity << 1);
+            } else if (size >= capacity - 1) {
+                throw new IllegalStateException("segment is full (" + size + " entries), use a higher concurrencyLevel");
+            }
+        }
+
+        private void rehash(int newCapacity) {
+            final var oldTable = this.table;
+            final var newTable = allocate(newCapacity);
+            final var mask = newCapacity - 1;
+            for (int i = 0; i < oldTable.capacity(); i += 2) {
+                final var key = oldTable.get(i);
+                if (key == EMPTY) {
+                    continue;
+                }
+                var slot = (int) hash(key) & mask;
+                while (newTable.get(slot << 1) != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                newTable.put(slot << 1, key);
+                newTable.put((slot << 1) + 1, oldTable.get(i + 1));
+            }
+            this.table = newTable;
+        }
+
+        long remove(long key, long hash, long noEntryValue) {
+            if (key == EMPTY) {
+                final var previous = hasZeroKey ? zeroValue : noEntryValue;
+                hasZeroKey = false;
+                zeroValue = 0;
+                return previous;
+            }
+            final var table = this.table;
+            final var index = indexOf(table, key, hash);
+            if (index < 0) {
+                return noEntryValue;
+            }
+            final var previous = table.get(index + 1);
+            // 后移删除：把空位之后、本应排在空位或更前面的条目依次前移，保证线性探测的查找链不断开
+            final var mask = (table.capacity() >>> 1) - 1;
+            var gap = index >>> 1;
+            var slot = gap;
+            while (true) {
+                slot = (slot + 1) & mask;
+                final var current = table.get(slot << 1);
+                if (current == EMPTY) {
+                    break;
+                }
+                final var ideal = (int) hash(current) & mask;
+                // 空位位于该条目的理想位置与当前位置之间（环形），可以前移到空位
+                if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                    table.put(gap << 1, current);
+                    table.put((gap << 1) + 1, table.get((slot << 1) + 1));
+                    gap = slot;
+                }
+            }
+            table.put(gap << 1, EMPTY);
+            table.put((gap << 1) + 1, 0);
+            size--;
+            return previous;
+        }
+
+        void clear() {
+            table = allocate(initialCapacity);
+            size = 0;
+            hasZeroKey = false;
+            zeroValue = 0;
+        }
+
+        void forEach(EntryConsumer action) {
+            if (hasZeroKey) {
+                action.accept(EMPTY, zeroValue);
+            }
+            final var table = this.table;
+            for (int i = 0; i < table.capacity(); i += 2) {
+                final var key = table.get(i);
+                if (key != EMPTY) {
+                    action.accept(key, table.get(i + 1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.shiloh.multithread.concurrentlist;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 12:10
+ * @description long -> long并发哈希表测试
+ * 1.4个线程在各自的key范围内（包括key = 0）随机put/remove/addAndGet，同时记录到各自的HashMap中，最后逐个核对；
+ * 写入的同时另有2个线程不停地get/containsKey：一部分key在写线程开始前放入、之后不再修改，乐观读期间
+ * 同一段可能正在扩容或后移删除，读到的值必须始终正确；其余key正在被修改，只要求读取不抛出异常；
+ * 2.分别向ConcurrentHashMap和ConcurrentLongLongMap（堆内、堆外）放入200万个条目，比较堆内存占用。
+ * <p>
+ * 吞吐量对比见benchmarks模块的ConcurrentLongLongMapBenchmark
+ */
+public class ConcurrentLongLongMapTests {
+
+    private static final int THREADS = 4;
+
+    private static final int ENTRIES = 2_000_000;
+
+    /**
+     * 写线程开始前放入、之后不再修改的key的数量，key从STABLE_BASE开始，value为key * 3
+     */
+    private static final int STABLE_KEYS = 10_000;
+
+    private static final long STABLE_BASE = 1_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        verifyConcurrentUpdates();
+        final var runtime = Runtime.getRuntime();
+
+        System.out.printf("ConcurrentHashMap:            %6.1f bytes/entry on heap%n",
+                concurrentHashMapBytesPerEntry(runtime));
+        for (boolean offHeap : new boolean[]{false, true}) {
+            final var before = usedMemory(runtime);
+            final var map = new ConcurrentLongLongMap(ENTRIES, 64, offHeap, -1);
+            for (long i = 0; i < ENTRIES; i++) {
+                map.put(i, i);
+            }
+            System.out.printf("ConcurrentLongLongMap(%s): %6.1f bytes/entry on heap, %6.1f bytes/entry in table%n",
+                    offHeap ? "off" : "on ", (double) (usedMemory(runtime) - before) / map.size(),
+                    (double) map.footprintBytes() / map.size());
+        }
+    }
+
+    /**
+     * 方法返回后map不再可达，不会影响后面的测量
+     */
+    private static double concurrentHashMapBytesPerEntry(Runtime runtime) throws InterruptedException {
+        final var before = usedMemory(runtime);
+        final var concurrentHashMap = new ConcurrentHashMap<Long, Long>();
+        for (long i = 0; i < ENTRIES; i++) {
+            concurrentHashMap.put(i, i);
+        }
+        return (double) (usedMemory(runtime) - before) / concurrentHashMap.size();
+    }
+
+    private static void verifyConcurrentUpdates() throws InterruptedException {
+        final var map = new ConcurrentLongLongMap(0, 8, true, -1);
+        for (long key = STABLE_BASE; key < STABLE_BASE + STABLE_KEYS; key++) {
+            map.put(key, key * 3);
+        }
+        final var writing = new AtomicBoolean(true);
+        final var reads = new AtomicLong();
+        final var wrongReads = new AtomicLong();
+        final var readers = new ArrayList<Thread>();
+        for (int t = 0; t < 2; t++) {
+            readers.add(new Thread(() -> {
+                final var random = ThreadLocalRandom.current();
+                var count = 0L;
+                var wrong = 0L;
+                while (writing.get()) {
+                    final var key = STABLE_BASE + random.nextInt(STABLE_KEYS);
+                    if (map.get(key) != key * 3 || !map.containsKey(key)) {
+                        wrong++;
+                    }
+                    // 正在被修改的key，结果不确定，只验证不会抛出异常
+                    map.get(random.nextInt(THREADS) * 100_000L + random.nextInt(50_000));
+                    count++;
+                }
+                reads.addAndGet(count);
+                wrongReads.addAndGet(wrong);
+            }));
+        }
+        readers.forEach(Thread::start);
+        final var expected = new ArrayList<Map<Long, Long>>();
+        final var threads = new ArrayList<Thread>();
+        for (int t = 0; t < THREADS; t++) {
+            final var reference = new HashMap<Long, Long>();
+            expected.add(reference);
+            final var base = (long) t * 100_000;
+            threads.add(new Thread(() -> {
+                final var random = ThreadLocalRandom.current();
+                for (int i = 0; i < 500_000; i++) {
+                    final var key = base + random.nextInt(50_000);
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            map.put(key, i);
+                            reference.put(key, (long) i);
+                            break;
+                        case 1:
+                            map.remove(key);
+                            reference.remove(key);
+                            break;
+                        default:
+                            map.addAndGet(key, 1);
+                            reference.merge(key, 1L, Long::sum);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        System.out.printf("concurrent reads = %d, wrong reads of stable keys = %d%n", reads.get(), wrongReads.get());
+        var mismatches = 0;
+        var total = STABLE_KEYS;
+        for (Map<Long, Long> reference : expected) {
+            total += reference.size();
+            for (Map.Entry<Long, Long> entry : reference.entrySet()) {
+                if (map.get(entry.getKey()) != entry.getValue()) {
+                    mismatches++;
+                }
+            }
+        }
+        System.out.printf("size = %d, expected = %d, mismatches = %d%n", map.size(), total, mismatches);
+    }
+
+    private static long usedMemory(Runtime runtime) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,102 @@
+package org.shiloh.multithread.concurrentlist;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 13:00
+ * @description 估算访问频率的Count-Min Sketch，供{@link BoundedCache}的TinyLFU准入策略使用
+ * 每个计数器只有4位（最大15），一个long保存16个计数器。每个key按4个不同的哈希函数分别命中4个计数器，
+ * 频率取其中的最小值，哈希冲突只会让估算值偏大，不会偏小。
+ * <p>
+ * 累计增加了sampleSize次后，所有计数器减半（老化），让过去热门、现在不再访问的key逐渐失去优势。
+ * 只由持有淘汰锁的线程访问，不需要同步。
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    /**
+     * 最多4M个long（32MB），继续增大收益很小
+     */
+    private static final int MAX_TABLE_SIZE = 1 << 22;
+
+    private long[] table = new long[0];
+
+    private int tableMask;
+
+    private int sampleSize;
+
+    private int size;
+
+    /**
+     * 按预计的条目数调整计数器数组的大小，调整时丢弃已有的计数
+     */
+    void ensureCapacity(long maximumSize) {
+        final var length = (int) Math.min(MAX_TABLE_SIZE,
+                Math.max(64, Long.highestOneBit(Math.max(maximumSize, 2) - 1) << 1));
+        if (table.length >= length) {
+            return;
+        }
+        table = new long[length];
+        tableMask = length - 1;
+        sampleSize = 10 * length;
+        size = 0;
+    }
+
+    int frequency(Object item) {
+        final var hash = spread(item.hashCode());
+        final var start = (hash & 3) << 2;
+        var frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            final var index = indexOf(hash, i);
+            final var count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(Object item) {
+        final var hash = spread(item.hashCode());
+        // 低2位决定使用long中的哪一组计数器（每组4个），4个哈希函数分别使用组内的一个
+        final var start = (hash & 3) << 2;
+        var added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        final var offset = counter << 2;
+        final var mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        var h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
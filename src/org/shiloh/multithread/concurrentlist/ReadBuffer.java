@@ -0,0 +1,97 @@
+package org.shiloh.multithread.concurrentlist;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 13:10
+ * @description 分段、有损的多生产者单消费者环形缓冲区，用于{@link BoundedCache}记录读操作
+ * LRU等淘汰策略每次读都要调整链表顺序，如果每次读都加锁，读操作会退化为串行。
+ * 这里每次读只把被访问的节点放入缓冲区（一次CAS），由持有淘汰锁的线程批量取出后再调整链表。
+ * <p>
+ * 缓冲区按线程的探针值分成多段，不同线程大概率写入不同的段；每段是一个固定大小的环形数组。
+ * 段满了或者CAS失败时直接丢弃这次记录：访问记录只影响淘汰顺序的精确度，不影响正确性，
+ * 热点数据被访问得足够频繁，丢掉一部分记录不会改变结果。
+ */
+final class ReadBuffer<E> {
+
+    static final int BUFFER_SIZE = 16;
+
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+    /**
+     * 每段的写指针和读指针分别占用一个缓存行：写指针位于stripe * 16，读指针位于stripe * 16 + 8
+     */
+    private static final int PADDING = 16;
+
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(
+            () -> new int[]{mix((int) Thread.currentThread().getId())}
+    );
+
+    private final int stripeMask;
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final AtomicLongArray counters;
+
+    ReadBuffer() {
+        final var processors = Runtime.getRuntime().availableProcessors();
+        final var stripes = processors == 1 ? 1 : Integer.highestOneBit(processors - 1) << 1;
+        this.stripeMask = stripes - 1;
+        this.slots = new AtomicReferenceArray<>(stripes * BUFFER_SIZE);
+        this.counters = new AtomicLongArray(stripes * PADDING);
+    }
+
+    /**
+     * @return 该段已满，调用方应尽快触发一次清理
+     */
+    boolean offer(E e) {
+        final var probe = PROBE.get();
+        final var stripe = probe[0] & stripeMask;
+        final var writeIndex = stripe * PADDING;
+        final var tail = counters.get(writeIndex);
+        final var size = tail - counters.get(writeIndex + 8);
+        if (size >= BUFFER_SIZE) {
+            return true;
+        }
+        if (counters.compareAndSet(writeIndex, tail, tail + 1)) {
+            slots.lazySet(stripe * BUFFER_SIZE + (int) (tail & BUFFER_MASK), e);
+            return size + 1 >= BUFFER_SIZE;
+        }
+        // 有其他线程在竞争这一段，换一段，这次记录丢弃
+        probe[0] = mix(probe[0]);
+        return false;
+    }
+
+    /**
+     * 只能由一个线程调用（持有淘汰锁）
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            final var readIndex = stripe * PADDING + 8;
+            var head = counters.get(readIndex);
+            final var tail = counters.get(stripe * PADDING);
+            while (head < tail) {
+                final var slot = stripe * BUFFER_SIZE + (int) (head & BUFFER_MASK);
+                final var e = slots.get(slot);
+                if (e == null) {
+                    // 生产者已经占了位置但还没写入，下次再取
+                    break;
+                }
+                slots.lazySet(slot, null);
+                consumer.accept(e);
+                head++;
+            }
+            counters.lazySet(readIndex, head);
+        }
+    }
+
+    private static int mix(int h) {
+        h ^= h << 13;
+        h ^= h >>> 17;
+        h ^= h << 5;
+        return h == 0 ? 1 : h;
+    }
+}
@@ -0,0 +1,23 @@
+package org.shiloh.multithread.concurrentlist;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 13:15
+ * @description 计算缓存条目的权重，{@link BoundedCache}保证所有条目的权重之和不超过maximumWeight
+ * 例如按value占用的字节数计算权重，就可以限制缓存占用的内存大小
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * 每个条目的权重都是1，此时maximumWeight就是最大条目数
+     */
+    static <K, V> Weigher<K, V> singleton() {
+        return (key, value) -> 1;
+    }
+
+    /**
+     * @return 非负的权重
+     */
+    int weigh(K key, V value);
+}
@@ -0,0 +1,54 @@
+package org.shiloh.multithread.concurrentlist;
+
+import java.util.Random;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 14:20
+ * @description Zipf分布的随机数生成器（YCSB的算法），用于模拟缓存的访问分布
+ * 第k热门的key被访问的概率与1 / k^theta成正比，theta越大，访问越集中在少数热点key上；
+ * 真实的缓存访问通常接近theta = 0.99。
+ */
+final class ZipfianGenerator {
+
+    private final long items;
+
+    private final double theta;
+
+    private final double zetan;
+
+    private final double alpha;
+
+    private final double eta;
+
+    /**
+     * @param items 生成的值的范围[0, items)，0最热门
+     */
+    ZipfianGenerator(long items, double theta) {
+        this.items = items;
+        this.theta = theta;
+        this.zetan = zeta(items, theta);
+        this.alpha = 1 / (1 - theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+    }
+
+    long next(Random random) {
+        final var u = random.nextDouble();
+        final var uz = u * zetan;
+        if (uz < 1) {
+            return 0;
+        }
+        if (uz < 1 + Math.pow(0.5, theta)) {
+            return 1;
+        }
+        return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
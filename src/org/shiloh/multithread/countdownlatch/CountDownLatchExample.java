@@ -1,5 +1,7 @@
 package org.shiloh.multithread.countdownlatch;
 
+import org.shiloh.multithread.threadpool.AdaptiveThreadPoolExecutor;
+
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -9,6 +11,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * @author shiloh
  * @date 2022/10/18 11:01
  * @see <a href="https://www.jianshu.com/p/128476015902">参考文章</a>
+ * @see ScatterGather 需要子任务的返回值、失败信息，或者超时后取消剩余任务时使用
  */
 public class CountDownLatchExample {
     /**
@@ -18,13 +21,15 @@ public class CountDownLatchExample {
 
     /**
      * 线程池
+     * 使用无界的LinkedBlockingQueue时，线程数永远不会超过核心线程数，最大线程数1024形同虚设，
+     * 这里改为有界队列，由{@link AdaptiveThreadPoolExecutor}根据吞吐量和排队时间在[CPU核数, 1024]之间调整线程数
      */
-    private static final ThreadPoolExecutor COMMON_POLL = new ThreadPoolExecutor(
+    private static final ThreadPoolExecutor COMMON_POLL = new AdaptiveThreadPoolExecutor(
             Runtime.getRuntime().availableProcessors(),
             1024,
-            5L,
-            TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(),
+            1024,
+            10L,
+            TimeUnit.MILLISECONDS,
             new ThreadFactory() {
                 private final AtomicLong counter = new AtomicLong(1);
 
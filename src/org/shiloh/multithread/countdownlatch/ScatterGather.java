@@ -0,0 +1,160 @@
+package org.shiloh.multithread.countdownlatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 10:40
+ * @description 结构化的扇出/扇入（scatter-gather）
+ * {@link CountDownLatchExample}中5个任务共享同一个{@link Task}，在finally中countDown()，主线程await(5, SECONDS)：
+ * 任务的返回值和异常都拿不到，超时后还没完成的任务也没人取消，会继续占用线程池。
+ * <p>
+ * ScatterGather把一组子任务的生命周期限制在一次{@link #join()}之内：
+ * 1.{@link #fork(Callable)}提交子任务，默认在{@link ForkJoinPool#commonPool()}（work-stealing线程池）上执行；
+ * 2.{@link #join()}按完成的先后顺序收集结果，可以通过回调在结果到达时立即处理，不必等所有子任务完成；
+ * 3.{@link FailurePolicy#FAIL_FAST}：任一子任务失败或到达截止时间，立即抛出异常；
+ * {@link FailurePolicy#TOLERATE}：记录失败的子任务，到达截止时间时返回已经拿到的部分结果；
+ * 4.join()返回（包括抛出异常、被中断）时，所有还没完成的子任务都会被取消并中断，不会有子任务泄漏到join()之后。
+ * <p>
+ * 同一个ScatterGather只能由创建它的线程fork()和join()，并且只能join()一次。
+ * commonPool的并行度为CPU核数 - 1，子任务是阻塞的IO调用时，应传入按扇出数量指定并行度的线程池，
+ * 例如{@link java.util.concurrent.Executors#newWorkStealingPool(int)}。
+ */
+public class ScatterGather<T> {
+
+    public enum FailurePolicy {
+
+        /**
+         * 任一子任务失败或超时，取消其余子任务并抛出异常
+         */
+        FAIL_FAST,
+
+        /**
+         * 容忍部分失败，返回成功的部分结果
+         */
+        TOLERATE
+    }
+
+    private final Executor executor;
+
+    private final FailurePolicy policy;
+
+    private final long deadlineNanos;
+
+    private final List<FutureTask<T>> tasks = new ArrayList<>();
+
+    /**
+     * 已完成的子任务，按完成的先后顺序排列
+     */
+    private final BlockingQueue<FutureTask<T>> completed = new LinkedBlockingQueue<>();
+
+    private boolean joined;
+
+    /**
+     * 在{@link ForkJoinPool#commonPool()}上执行子任务
+     *
+     * @param timeout 从创建开始计算的截止时间
+     */
+    public ScatterGather(FailurePolicy policy, long timeout, TimeUnit unit) {
+        this(ForkJoinPool.commonPool(), policy, timeout, unit);
+    }
+
+    public ScatterGather(Executor executor, FailurePolicy policy, long timeout, TimeUnit unit) {
+        this.executor = Objects.requireNonNull(executor);
+        this.policy = Objects.requireNonNull(policy);
+        this.deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+    }
+
+    /**
+     * 提交一个子任务，线程池拒绝执行时抛出RejectedExecutionException，这个子任务不会计入join()等待的任务
+     *
+     * @author shiloh
+     * @date 2026/10/19 10:50
+     */
+    public void fork(Callable<? extends T> subtask) {
+        Objects.requireNonNull(subtask);
+        if (joined) {
+            throw new IllegalStateException("already joined");
+        }
+        final var task = new FutureTask<T>(subtask::call) {
+            @Override
+            protected void done() {
+                completed.add(this);
+            }
+        };
+        // 先提交再记录，被拒绝的任务永远不会完成，记录下来的话join()会一直等到截止时间
+        executor.execute(task);
+        tasks.add(task);
+    }
+
+    public ScatterGatherResult<T> join() throws InterruptedException, ExecutionException, TimeoutException {
+        return join(null);
+    }
+
+    /**
+     * 等待子任务完成或到达截止时间
+     *
+     * @param onResult 每得到一个成功的结果就在当前线程中回调一次，可以为null
+     * @throws ExecutionException 策略为FAIL_FAST且有子任务失败，cause为第一个失败的子任务抛出的异常
+     * @throws TimeoutException   策略为FAIL_FAST且到达截止时间时仍有子任务没有完成
+     * @author shiloh
+     * @date 2026/10/19 10:55
+     */
+    public ScatterGatherResult<T> join(Consumer<? super T> onResult)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (joined) {
+            throw new IllegalStateException("already joined");
+        }
+        joined = true;
+        final var values = new ArrayList<T>(tasks.size());
+        final var failures = new ArrayList<Throwable>();
+        var remaining = tasks.size();
+        try {
+            while (remaining > 0) {
+                final var task = completed.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (task == null) {
+                    break;
+                }
+                remaining--;
+                if (task.isCancelled()) {
+                    continue;
+                }
+                final T value;
+                try {
+                    // 任务已经完成，get()不会阻塞
+                    value = task.get();
+                } catch (ExecutionException e) {
+                    if (policy == FailurePolicy.FAIL_FAST) {
+                        throw e;
+                    }
+                    failures.add(e.getCause());
+                    continue;
+                }
+                values.add(value);
+                if (onResult != null) {
+                    onResult.accept(value);
+                }
+            }
+            if (remaining > 0 && policy == FailurePolicy.FAIL_FAST) {
+                throw new TimeoutException(remaining + " of " + tasks.size() + " subtasks did not finish in time");
+            }
+            return new ScatterGatherResult<>(values, failures, remaining);
+        } finally {
+            for (FutureTask<T> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+}
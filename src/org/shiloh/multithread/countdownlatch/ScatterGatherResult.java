@@ -0,0 +1,63 @@
+package org.shiloh.multithread.countdownlatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 10:50
+ * @description {@link ScatterGather#join()}的结果
+ */
+public class ScatterGatherResult<T> {
+
+    private final List<T> values;
+
+    private final List<Throwable> failures;
+
+    private final int cancelledCount;
+
+    ScatterGatherResult(List<T> values, List<Throwable> failures, int cancelledCount) {
+        // 子任务可以正常地返回null，List.copyOf()不允许null元素
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+        this.failures = List.copyOf(failures);
+        this.cancelledCount = cancelledCount;
+    }
+
+    /**
+     * 成功的结果，按完成的先后顺序排列，子任务返回null时对应的元素也为null
+     */
+    public List<T> getValues() {
+        return values;
+    }
+
+    /**
+     * 失败的子任务抛出的异常，按完成的先后顺序排列
+     */
+    public List<Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * 到达截止时间时还没有完成、被取消的子任务数量
+     */
+    public int getCancelledCount() {
+        return cancelledCount;
+    }
+
+    /**
+     * 所有子任务都成功完成
+     */
+    public boolean isComplete() {
+        return failures.isEmpty() && cancelledCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ScatterGatherResult{" +
+                "values=" + values +
+                ", failures=" + failures +
+                ", cancelledCount=" + cancelledCount +
+                '}';
+    }
+}
@@ -0,0 +1,76 @@
+package org.shiloh.multithread.countdownlatch;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 11:05
+ * @description 扇出/扇入测试
+ * 与{@link CountDownLatchExample}一样提交5个查询，耗时分别为200ms ~ 3s，其中1个会失败，截止时间为1秒：
+ * 1.TOLERATE：按完成顺序拿到截止时间前完成的结果和失败信息，剩下的查询被取消；
+ * 2.FAIL_FAST：第1个失败出现时立即抛出异常，其余查询被取消；
+ * 3.子任务返回null也是正常的结果；线程池关闭后fork()被拒绝，join()不会为它等到截止时间。
+ */
+public class ScatterGatherTests {
+
+    private static final long[] LATENCY_MILLIS = {800, 200, 3000, 500, 1500};
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException, TimeoutException {
+        // 查询大部分时间在等待，work-stealing线程池的并行度默认为CPU核数，这里按扇出数量指定，否则查询会排队执行
+        final var threadPool = Executors.newWorkStealingPool(LATENCY_MILLIS.length);
+        for (ScatterGather.FailurePolicy policy : ScatterGather.FailurePolicy.values()) {
+            final var interrupted = new AtomicInteger();
+            final var scatterGather = new ScatterGather<String>(threadPool, policy, 1, TimeUnit.SECONDS);
+            for (int i = 0; i < LATENCY_MILLIS.length; i++) {
+                final var index = i;
+                scatterGather.fork(() -> query(index, interrupted));
+            }
+            final var start = System.nanoTime();
+            try {
+                final var result = scatterGather.join(value -> System.out.println("  received " + value));
+                System.out.printf("%s: %s%n", policy, result);
+            } catch (ExecutionException | TimeoutException e) {
+                System.out.printf("%s: failed with %s%n", policy, e);
+            }
+            System.out.printf("  joined after %dms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            Thread.sleep(100);
+            System.out.println("  interrupted stragglers = " + interrupted.get());
+        }
+
+        final var nullable = new ScatterGather<String>(threadPool, ScatterGather.FailurePolicy.TOLERATE, 1,
+                TimeUnit.SECONDS);
+        nullable.fork(() -> null);
+        nullable.fork(() -> "query-0");
+        System.out.println("null result: " + nullable.join());
+
+        threadPool.shutdown();
+        final var rejected = new ScatterGather<String>(threadPool, ScatterGather.FailurePolicy.TOLERATE, 1,
+                TimeUnit.SECONDS);
+        try {
+            rejected.fork(() -> "query-0");
+        } catch (RejectedExecutionException e) {
+            System.out.println("fork rejected: " + e.getClass().getSimpleName());
+        }
+        final var start = System.nanoTime();
+        System.out.printf("rejected: %s after %dms%n", rejected.join(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static String query(int index, AtomicInteger interrupted) throws InterruptedException {
+        try {
+            Thread.sleep(LATENCY_MILLIS[index]);
+        } catch (InterruptedException e) {
+            interrupted.incrementAndGet();
+            throw e;
+        }
+        if (index == 3) {
+            throw new IllegalStateException("query-" + index + " failed");
+        }
+        return "query-" + index;
+    }
+}
@@ -0,0 +1,14 @@
+package org.shiloh.multithread.forkjoin;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 13:02
+ * @description {@link ParallelReducer}的叶子计算：顺序归约数据源source中[from, to)区间的元素，结果为double
+ *
+ * @param <A> 数据源类型
+ */
+@FunctionalInterface
+public interface DoubleRangeReducer<A> {
+
+    double reduce(A source, long from, long to);
+}
@@ -0,0 +1,62 @@
+package org.shiloh.multithread.forkjoin;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 13:05
+ * @description 结果为double的并行归约任务，拆分与合并方式与{@link LongReduceTask}相同，结果保存在double字段中，不会装箱成Double
+ */
+final class DoubleReduceTask<A> extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final A source;
+
+    private final long from;
+
+    private final long to;
+
+    private final DoubleRangeReducer<A> leaf;
+
+    private final DoubleBinaryOperator combiner;
+
+    private final long threshold;
+
+    private final boolean adaptive;
+
+    private final DoubleReduceTask<A> next;
+
+    double result;
+
+    DoubleReduceTask(A source, long from, long to, DoubleRangeReducer<A> leaf, DoubleBinaryOperator combiner,
+                     long threshold, boolean adaptive, DoubleReduceTask<A> next) {
+        this.source = source;
+        this.from = from;
+        this.to = to;
+        this.leaf = leaf;
+        this.combiner = combiner;
+        this.threshold = threshold;
+        this.adaptive = adaptive;
+        this.next = next;
+    }
+
+    @Override
+    protected void compute() {
+        var hi = to;
+        DoubleReduceTask<A> forked = null;
+        while (hi - from > threshold && (!adaptive || getSurplusQueuedTaskCount() <= ParallelReducer.MAX_SURPLUS)) {
+            final var mid = (from + hi) >>> 1;
+            forked = new DoubleReduceTask<>(source, mid, hi, leaf, combiner, threshold, adaptive, forked);
+            forked.fork();
+            hi = mid;
+        }
+        var r = leaf.reduce(source, from, hi);
+        for (var task = forked; task != null; task = task.next) {
+            task.join();
+            r = combiner.applyAsDouble(r, task.result);
+        }
+        result = r;
+    }
+}
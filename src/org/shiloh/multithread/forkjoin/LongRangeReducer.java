@@ -0,0 +1,15 @@
+package org.shiloh.multithread.forkjoin;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 13:00
+ * @description {@link ParallelReducer}的叶子计算：顺序归约数据源source中[from, to)区间的元素，结果为long
+ * 数据源可以是long[]、int[]，也可以是文件映射出来的缓冲区，只要能按下标区间访问即可
+ *
+ * @param <A> 数据源类型
+ */
+@FunctionalInterface
+public interface LongRangeReducer<A> {
+
+    long reduce(A source, long from, long to);
+}
@@ -0,0 +1,68 @@
+package org.shiloh.multithread.forkjoin;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 13:05
+ * @description 结果为long的并行归约任务
+ * 与{@link SumTask}相比：
+ * 1.继承RecursiveAction，结果保存在long字段中，合并时不会装箱成Long；
+ * 2.拆分时只fork右半部分，左半部分在当前线程继续拆分，直到足够小后直接计算，减少了任务对象的数量；
+ * 3.拆分阈值由{@link ParallelReducer}根据数组长度和并行度计算，自适应模式下还会参考当前线程的积压任务数。
+ * 被fork出去的任务通过next字段串成链表，按从左到右的顺序合并，所以combiner只需满足结合律，不要求满足交换律。
+ */
+final class LongReduceTask<A> extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final A source;
+
+    private final long from;
+
+    private final long to;
+
+    private final LongRangeReducer<A> leaf;
+
+    private final LongBinaryOperator combiner;
+
+    private final long threshold;
+
+    private final boolean adaptive;
+
+    private final LongReduceTask<A> next;
+
+    long result;
+
+    LongReduceTask(A source, long from, long to, LongRangeReducer<A> leaf, LongBinaryOperator combiner,
+                   long threshold, boolean adaptive, LongReduceTask<A> next) {
+        this.source = source;
+        this.from = from;
+        this.to = to;
+        this.leaf = leaf;
+        this.combiner = combiner;
+        this.threshold = threshold;
+        this.adaptive = adaptive;
+        this.next = next;
+    }
+
+    @Override
+    protected void compute() {
+        var hi = to;
+        LongReduceTask<A> forked = null;
+        while (hi - from > threshold && (!adaptive || getSurplusQueuedTaskCount() <= ParallelReducer.MAX_SURPLUS)) {
+            final var mid = (from + hi) >>> 1;
+            forked = new LongReduceTask<>(source, mid, hi, leaf, combiner, threshold, adaptive, forked);
+            forked.fork();
+            hi = mid;
+        }
+        var r = leaf.reduce(source, from, hi);
+        // 最后fork的任务紧挨着左半部分，依次向右合并
+        for (var task = forked; task != null; task = task.next) {
+            task.join();
+            r = combiner.applyAsLong(r, task.result);
+        }
+        result = r;
+    }
+}
@@ -0,0 +1,136 @@
+package org.shiloh.multithread.forkjoin;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 14:10
+ * @description 以内存映射的方式读取由long组成的二进制文件，作为{@link ParallelReducer}的数据源
+ * 把文件读入long[]再求和，需要的堆内存和文件一样大，文件超过堆大小时根本无法处理，读入的过程还要多复制一次数据。
+ * 内存映射（mmap）则是把文件直接映射到进程的虚拟地址空间，由操作系统按需把文件页加载到page cache，
+ * 读取时没有从内核到堆的复制，也不占用堆内存，文件大小只受虚拟地址空间限制。
+ * <p>
+ * 单个{@link java.nio.MappedByteBuffer}最大只能映射2GB，所以这里按{@link #CHUNK_LONGS}个long（1GB）为一段依次映射，
+ * 并行归约时每个叶子任务负责[from, to)区间，区间跨越两段时分别在两段上计算再合并。
+ * 对映射缓冲区只使用按下标读取的get(int)方法，不会修改position，因此多个线程可以同时读取同一段。
+ * <p>
+ * 注意：Java 17没有公开的解除映射的API，{@link #close()}只会关闭文件通道，映射的内存要等缓冲区被GC回收后才会释放。
+ */
+public class MappedLongFile implements Closeable {
+
+    /**
+     * 每一段映射的long个数：2^27个long = 1GB
+     */
+    static final int CHUNK_SHIFT = 27;
+
+    static final long CHUNK_LONGS = 1L << CHUNK_SHIFT;
+
+    private final FileChannel channel;
+
+    private final LongBuffer[] chunks;
+
+    private final long length;
+
+    private MappedLongFile(FileChannel channel, ByteOrder order) throws IOException {
+        final var size = channel.size();
+        if (size % Long.BYTES != 0) {
+            throw new IllegalArgumentException("file size is not a multiple of 8 bytes: " + size);
+        }
+        this.channel = channel;
+        this.length = size / Long.BYTES;
+        this.chunks = new LongBuffer[(int) ((length + CHUNK_LONGS - 1) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            final var position = i * CHUNK_LONGS * Long.BYTES;
+            final var bytes = Math.min(CHUNK_LONGS * Long.BYTES, size - position);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, bytes).order(order).asLongBuffer();
+        }
+    }
+
+    /**
+     * 按本机字节序打开文件
+     */
+    public static MappedLongFile open(Path path) throws IOException {
+        return open(path, ByteOrder.nativeOrder());
+    }
+
+    public static MappedLongFile open(Path path, ByteOrder order) throws IOException {
+        final var channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedLongFile(channel, order);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 文件中long的个数
+     */
+    public long length() {
+        return length;
+    }
+
+    public long get(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & (CHUNK_LONGS - 1)));
+    }
+
+    public long sum(ParallelReducer reducer) {
+        return reducer.reduceToLong(this, length, (file, from, to) ->
+                file.reduceRange(from, to, ReduceKernels::sum, Long::sum, 0L), Long::sum);
+    }
+
+    public long min(ParallelReducer reducer) {
+        return reducer.reduceToLong(this, length, (file, from, to) ->
+                file.reduceRange(from, to, ReduceKernels::min, Math::min, Long.MAX_VALUE), Math::min);
+    }
+
+    public long max(ParallelReducer reducer) {
+        return reducer.reduceToLong(this, length, (file, from, to) ->
+                file.reduceRange(from, to, ReduceKernels::max, Math::max, Long.MIN_VALUE), Math::max);
+    }
+
+    /**
+     * 自定义归约，要求与{@link ParallelReducer#reduce(long[], long, LongBinaryOperator)}相同
+     *
+     * @author shiloh
+     * @date 2026/10/18 14:25
+     */
+    public long reduce(ParallelReducer reducer, long identity, LongBinaryOperator op) {
+        return reducer.reduceToLong(this, length, (file, from, to) ->
+                file.reduceRange(from, to, (buffer, start, end) -> {
+                    var result = identity;
+                    for (int i = (int) start; i < (int) end; i++) {
+                        result = op.applyAsLong(result, buffer.get(i));
+                    }
+                    return result;
+                }, op, identity), op);
+    }
+
+    /**
+     * 把[from, to)按映射段拆开，分别在每一段上调用kernel，再用op合并
+     */
+    private long reduceRange(long from, long to, LongRangeReducer<LongBuffer> kernel, LongBinaryOperator op,
+                             long identity) {
+        var result = identity;
+        while (from < to) {
+            final var chunk = (int) (from >>> CHUNK_SHIFT);
+            final var chunkEnd = Math.min(to, (chunk + 1L) << CHUNK_SHIFT);
+            final var offset = (long) chunk << CHUNK_SHIFT;
+            result = op.applyAsLong(result, kernel.reduce(chunks[chunk], from - offset, chunkEnd - offset));
+            from = chunkEnd;
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
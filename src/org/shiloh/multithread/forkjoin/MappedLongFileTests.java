@@ -0,0 +1,66 @@
+package org.shiloh.multithread.forkjoin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 14:35
+ * @description 对内存映射的long文件进行并行求和
+ * 先生成一个由随机long组成的临时文件，再通过{@link MappedLongFile}直接在映射的内存上求和，整个过程不需要把文件读入堆内存
+ */
+public class MappedLongFileTests {
+
+    public static void main(String[] args) throws IOException {
+        final var path = Files.createTempFile("longs", ".bin");
+        try {
+            final var expectedSum = writeRandomLongs(path, 32_000_000);
+            System.out.printf("Expected sum: %d%n", expectedSum);
+            final var reducer = new ParallelReducer();
+            try (var file = MappedLongFile.open(path)) {
+                final var start = System.nanoTime();
+                final var sum = file.sum(reducer);
+                final var elapsed = System.nanoTime() - start;
+                System.out.printf("Mapped sum: %d of %d longs in %d ms%n", sum, file.length(), elapsed / 1_000_000);
+                System.out.println("min = " + file.min(reducer) + ", max = " + file.max(reducer));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * 以本机字节序写入count个随机long，返回它们的和
+     */
+    static long writeRandomLongs(Path path, long count) throws IOException {
+        final var random = new Random(0);
+        final var buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.nativeOrder());
+        long sum = 0;
+        try (var channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long i = 0; i < count; i++) {
+                final long value = random.nextInt(10000);
+                sum += value;
+                buffer.putLong(value);
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+            }
+            flush(channel, buffer);
+        }
+        return sum;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,202 @@
+package org.shiloh.multithread.forkjoin;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 13:25
+ * @description 基于Fork/Join的并行归约
+ * {@link SumTask}用于演示Fork/Join的拆分过程：阈值固定为500、每个元素休眠10ms、每次拆分都打印日志，结果还要装箱成Long，
+ * ParallelReducer则是可以直接用于大数组的版本，支持long[]、int[]、double[]的求和、最小值、最大值、计数以及自定义的归约操作。
+ * <p>
+ * 叶子任务的大小（拆分阈值）有两种确定方式：
+ * 1.静态（默认）：阈值 = 数组长度 / (并行度 * 8)，且不小于{@link #MIN_LEAF_SIZE}，
+ * 即每个工作线程平均分到8个叶子任务，既能在线程之间均衡负载，又不会产生过多的小任务；
+ * 2.自适应：只要当前工作线程积压的任务不超过{@link #MAX_SURPLUS}个（{@link java.util.concurrent.ForkJoinTask#getSurplusQueuedTaskCount()}），
+ * 就继续拆分，直到{@link #MIN_LEAF_SIZE}为止。其他线程空闲时会来窃取任务，积压少，拆分得就细；
+ * 所有线程都很忙时积压多，就不再拆分而是直接计算。适合同一个线程池中还运行着其他任务的场景。
+ * <p>
+ * 数组长度不超过阈值时直接在调用线程中计算，不会提交到线程池。
+ * 自定义归约操作（reduce）必须满足结合律，identity必须是该操作的单位元（例如加法的0、乘法的1）。
+ * 空数组的min()、max()分别返回对应类型的最大值、最小值（double为正、负无穷）。
+ */
+public class ParallelReducer {
+
+    /**
+     * 叶子任务的最小元素个数，小于它时拆分任务的开销会超过并行带来的收益
+     */
+    public static final int MIN_LEAF_SIZE = 1 << 13;
+
+    /**
+     * 自适应模式下，当前工作线程积压的任务超过该值时停止拆分
+     */
+    static final int MAX_SURPLUS = 3;
+
+    private final ForkJoinPool pool;
+
+    private final boolean adaptive;
+
+    public ParallelReducer() {
+        this(ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * @param pool     执行归约的线程池
+     * @param adaptive 是否根据积压任务数自适应地拆分
+     */
+    public ParallelReducer(ForkJoinPool pool, boolean adaptive) {
+        this.pool = pool;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * 通用的并行归约：把[0, length)拆成多个区间，每个区间调用leaf顺序计算，再用combiner按从左到右的顺序合并
+     *
+     * @param source   数据源
+     * @param length   数据源的元素个数
+     * @param leaf     叶子计算，length为0时也会以空区间调用一次，此时应返回单位元
+     * @param combiner 合并两个相邻区间的结果，必须满足结合律
+     * @author shiloh
+     * @date 2026/10/18 13:30
+     */
+    public <A> long reduceToLong(A source, long length, LongRangeReducer<A> leaf, LongBinaryOperator combiner) {
+        final var threshold = threshold(length);
+        if (length <= threshold) {
+            return leaf.reduce(source, 0, length);
+        }
+        final var task = new LongReduceTask<>(source, 0, length, leaf, combiner, threshold, adaptive, null);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    /**
+     * 与{@link #reduceToLong(Object, long, LongRangeReducer, LongBinaryOperator)}相同，结果为double
+     *
+     * @author shiloh
+     * @date 2026/10/18 13:32
+     */
+    public <A> double reduceToDouble(A source, long length, DoubleRangeReducer<A> leaf, DoubleBinaryOperator combiner) {
+        final var threshold = threshold(length);
+        if (length <= threshold) {
+            return leaf.reduce(source, 0, length);
+        }
+        final var task = new DoubleReduceTask<>(source, 0, length, leaf, combiner, threshold, adaptive, null);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    public long sum(long[] array) {
+        return reduceToLong(array, array.length, ReduceKernels::sum, Long::sum);
+    }
+
+    public long sum(int[] array) {
+        return reduceToLong(array, array.length, ReduceKernels::sum, Long::sum);
+    }
+
+    public double sum(double[] array) {
+        return reduceToDouble(array, array.length, ReduceKernels::sum, Double::sum);
+    }
+
+    public long min(long[] array) {
+        return reduceToLong(array, array.length, ReduceKernels::min, Math::min);
+    }
+
+    public int min(int[] array) {
+        return (int) reduceToLong(array, array.length, ReduceKernels::min, Math::min);
+    }
+
+    public double min(double[] array) {
+        return reduceToDouble(array, array.length, ReduceKernels::min, Math::min);
+    }
+
+    public long max(long[] array) {
+        return reduceToLong(array, array.length, ReduceKernels::max, Math::max);
+    }
+
+    public int max(int[] array) {
+        return (int) reduceToLong(array, array.length, ReduceKernels::max, Math::max);
+    }
+
+    public double max(double[] array) {
+        return reduceToDouble(array, array.length, ReduceKernels::max, Math::max);
+    }
+
+    public long count(long[] array, LongPredicate predicate) {
+        return reduceToLong(array, array.length, (a, from, to) -> {
+            long count = 0;
+            for (int i = (int) from; i < (int) to; i++) {
+                if (predicate.test(a[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }, Long::sum);
+    }
+
+    public long count(int[] array, IntPredicate predicate) {
+        return reduceToLong(array, array.length, (a, from, to) -> {
+            long count = 0;
+            for (int i = (int) from; i < (int) to; i++) {
+                if (predicate.test(a[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }, Long::sum);
+    }
+
+    public long count(double[] array, DoublePredicate predicate) {
+        return reduceToLong(array, array.length, (a, from, to) -> {
+            long count = 0;
+            for (int i = (int) from; i < (int) to; i++) {
+                if (predicate.test(a[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }, Long::sum);
+    }
+
+    public long reduce(long[] array, long identity, LongBinaryOperator op) {
+        return reduceToLong(array, array.length, (a, from, to) -> {
+            var result = identity;
+            for (int i = (int) from; i < (int) to; i++) {
+                result = op.applyAsLong(result, a[i]);
+            }
+            return result;
+        }, op);
+    }
+
+    public int reduce(int[] array, int identity, IntBinaryOperator op) {
+        return (int) reduceToLong(array, array.length, (a, from, to) -> {
+            var result = identity;
+            for (int i = (int) from; i < (int) to; i++) {
+                result = op.applyAsInt(result, a[i]);
+            }
+            return result;
+        }, (left, right) -> op.applyAsInt((int) left, (int) right));
+    }
+
+    public double reduce(double[] array, double identity, DoubleBinaryOperator op) {
+        return reduceToDouble(array, array.length, (a, from, to) -> {
+            var result = identity;
+            for (int i = (int) from; i < (int) to; i++) {
+                result = op.applyAsDouble(result, a[i]);
+            }
+            return result;
+        }, op);
+    }
+
+    private long threshold(long length) {
+        if (adaptive) {
+            return MIN_LEAF_SIZE;
+        }
+        return Math.max(MIN_LEAF_SIZE, length / ((long) pool.getParallelism() << 3));
+    }
+}
@@ -0,0 +1,39 @@
+package org.shiloh.multithread.forkjoin;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 13:45
+ * @description 使用{@link ParallelReducer}对大数组进行并行归约，并与单线程循环的结果对比
+ */
+public class ParallelReducerTests {
+
+    public static void main(String[] args) {
+        final var random = new Random(0);
+        final var array = new long[50_000_000];
+        long expectedSum = 0;
+        for (int i = 0; i < array.length; i++) {
+            array[i] = random.nextInt(10000);
+            expectedSum += array[i];
+        }
+        System.out.printf("Expected sum: %d%n", expectedSum);
+        final var reducer = new ParallelReducer();
+        final var adaptiveReducer = new ParallelReducer(ForkJoinPool.commonPool(), true);
+        // 多跑几轮，让JIT完成编译后再看耗时
+        for (int round = 0; round < 5; round++) {
+            var start = System.nanoTime();
+            final var sum = reducer.sum(array);
+            final var elapsed = System.nanoTime() - start;
+            start = System.nanoTime();
+            final var adaptiveSum = adaptiveReducer.sum(array);
+            final var adaptiveElapsed = System.nanoTime() - start;
+            System.out.printf("round %d: sum = %d in %d us, adaptive sum = %d in %d us%n", round,
+                    sum, elapsed / 1000, adaptiveSum, adaptiveElapsed / 1000);
+        }
+        System.out.println("min = " + reducer.min(array) + ", max = " + reducer.max(array));
+        System.out.println("count(>= 5000) = " + reducer.count(array, value -> value >= 5000));
+        System.out.println("xor = " + reducer.reduce(array, 0L, (a, b) -> a ^ b));
+    }
+}
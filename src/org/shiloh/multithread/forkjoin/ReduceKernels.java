@@ -0,0 +1,136 @@
+package org.shiloh.multithread.forkjoin;
+
+import java.nio.LongBuffer;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 13:15
+ * @description {@link ParallelReducer}内置的叶子计算
+ * 每个方法都是一个最简单的计数循环：循环变量为int、循环体内没有方法调用和分支，
+ * 这样的循环C2编译器可以展开并自动向量化（SuperWord），一次处理多个元素。
+ * <p>
+ * double求和是个例外：浮点加法不满足结合律，JIT不会为了向量化改变相加的顺序，
+ * 所以这里手动使用4个相互独立的累加变量打断依赖链，让CPU可以同时执行多条加法指令。
+ * <p>
+ * LongBuffer版本用于{@link MappedLongFile}，直接读取映射的内存，每次get()都带有边界检查，速度比数组版本稍慢。
+ */
+final class ReduceKernels {
+
+    private ReduceKernels() {
+    }
+
+    static long sum(long[] array, long from, long to) {
+        final int end = (int) to;
+        long sum = 0;
+        for (int i = (int) from; i < end; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    static long sum(int[] array, long from, long to) {
+        final int end = (int) to;
+        long sum = 0;
+        for (int i = (int) from; i < end; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    static double sum(double[] array, long from, long to) {
+        final int end = (int) to;
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = (int) from;
+        for (; i + 3 < end; i += 4) {
+            s0 += array[i];
+            s1 += array[i + 1];
+            s2 += array[i + 2];
+            s3 += array[i + 3];
+        }
+        for (; i < end; i++) {
+            s0 += array[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    static long min(long[] array, long from, long to) {
+        final int end = (int) to;
+        long min = Long.MAX_VALUE;
+        for (int i = (int) from; i < end; i++) {
+            min = Math.min(min, array[i]);
+        }
+        return min;
+    }
+
+    static long max(long[] array, long from, long to) {
+        final int end = (int) to;
+        long max = Long.MIN_VALUE;
+        for (int i = (int) from; i < end; i++) {
+            max = Math.max(max, array[i]);
+        }
+        return max;
+    }
+
+    static long min(int[] array, long from, long to) {
+        final int end = (int) to;
+        int min = Integer.MAX_VALUE;
+        for (int i = (int) from; i < end; i++) {
+            min = Math.min(min, array[i]);
+        }
+        return min;
+    }
+
+    static long max(int[] array, long from, long to) {
+        final int end = (int) to;
+        int max = Integer.MIN_VALUE;
+        for (int i = (int) from; i < end; i++) {
+            max = Math.max(max, array[i]);
+        }
+        return max;
+    }
+
+    static double min(double[] array, long from, long to) {
+        final int end = (int) to;
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = (int) from; i < end; i++) {
+            min = Math.min(min, array[i]);
+        }
+        return min;
+    }
+
+    static double max(double[] array, long from, long to) {
+        final int end = (int) to;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = (int) from; i < end; i++) {
+            max = Math.max(max, array[i]);
+        }
+        return max;
+    }
+
+    static long sum(LongBuffer buffer, long from, long to) {
+        final int end = (int) to;
+        long sum = 0;
+        for (int i = (int) from; i < end; i++) {
+            sum += buffer.get(i);
+        }
+        return sum;
+    }
+
+    static long min(LongBuffer buffer, long from, long to) {
+        final int end = (int) to;
+        long min = Long.MAX_VALUE;
+        for (int i = (int) from; i < end; i++) {
+            min = Math.min(min, buffer.get(i));
+        }
+        return min;
+    }
+
+    static long max(LongBuffer buffer, long from, long to) {
+        final int end = (int) to;
+        long max = Long.MIN_VALUE;
+        for (int i = (int) from; i < end; i++) {
+            max = Math.max(max, buffer.get(i));
+        }
+        return max;
+    }
+}
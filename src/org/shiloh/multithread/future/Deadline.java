@@ -0,0 +1,89 @@
+package org.shiloh.multithread.future;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 20:30
+ * @description 截止时间（deadline）
+ * 与“超时时长”不同，截止时间是一个绝对的时间点：任务A的截止时间是1秒后，A执行了300ms后调用子任务B，
+ * B应该在剩下的700ms内完成，而不是重新计算1秒。把截止时间沿着调用链传递下去，整条链路就共享同一个时间预算。
+ * <p>
+ * 当前线程的截止时间保存在ThreadLocal中，通过{@link #call(Callable)}设置，{@link #current()}读取；
+ * {@link DeadlineExecutor}提交任务时会读取当前线程的截止时间，并在执行任务的线程中重新设置，从而实现跨线程传递。
+ * 基于{@link System#nanoTime()}，不受系统时钟调整的影响，只能在同一个JVM内使用。
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 避免nanoTime() + timeout溢出，最长约73年
+     */
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE >>> 2;
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + Math.min(unit.toNanos(timeout), MAX_TIMEOUT_NANOS));
+    }
+
+    /**
+     * @return 当前线程的截止时间，没有设置时返回null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 返回两个截止时间中较早的一个，参数为null表示没有截止时间
+     */
+    public static Deadline earliest(Deadline a, Deadline b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.deadlineNanos - b.deadlineNanos <= 0 ? a : b;
+    }
+
+    public long remaining(TimeUnit unit) {
+        return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 在当前线程中以当前截止时间执行task，执行期间{@link #current()}返回当前截止时间，结束后恢复原来的值
+     * 嵌套调用时取两者中较早的截止时间，内层调用不能延长外层的时间预算
+     *
+     * @author shiloh
+     * @date 2026/10/18 20:40
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        final var previous = CURRENT.get();
+        CURRENT.set(earliest(this, previous));
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remaining(TimeUnit.MILLISECONDS) + "ms}";
+    }
+}
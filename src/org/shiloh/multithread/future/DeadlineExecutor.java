@@ -0,0 +1,119 @@
+package org.shiloh.multithread.future;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 20:45
+ * @description 带截止时间的任务执行器
+ * {@link FutureTest}中调用future.get()没有设置超时，而其中的TimeTask要执行2秒，
+ * 如果任务因为后端卡住永远不返回，调用方会永远等待，线程池中的线程也会被永远占用。
+ * <p>
+ * DeadlineExecutor提交任务时为它关联一个{@link Deadline}：
+ * 1.截止时间到达时，返回的CompletableFuture以{@link TimeoutException}异常完成，
+ * 同时取消任务并中断执行任务的线程，能响应中断的任务（sleep、wait、可中断IO等）会立即结束，释放工作线程；
+ * 2.截止时间在任务执行期间通过{@link Deadline#current()}可见，任务内部再通过同一个DeadlineExecutor提交子任务时，
+ * 子任务自动继承（不会超过）父任务的截止时间；
+ * 3.调用方取消返回的CompletableFuture时，同样会取消任务并中断执行任务的线程；
+ * 4.提交时截止时间已经过了，任务不会被执行；
+ * 5.线程池拒绝任务时，返回的CompletableFuture以{@link RejectedExecutionException}异常完成，超时也会被取消。
+ * <p>
+ * 超时检测使用1个单线程的{@link ScheduledThreadPoolExecutor}，它的延迟队列是二叉堆，
+ * 开启removeOnCancel后，添加、取消一个超时都是O(log n)，任务正常完成时超时会被立即从堆中移除，
+ * 所以即使有几百万个等待中的截止时间，队列中也只保留尚未完成的任务。
+ * 超时发生时，返回的CompletableFuture在超时检测线程中完成，耗时较长的后续处理应使用thenXxxAsync()。
+ */
+public class DeadlineExecutor {
+
+    private final ExecutorService workers;
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    public DeadlineExecutor(ExecutorService workers) {
+        this.workers = workers;
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            final var thread = new Thread(r, "DeadlineTimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 以当前线程的截止时间提交任务，当前线程没有截止时间时任务不会超时
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, null);
+    }
+
+    /**
+     * @param deadline 任务的截止时间，当前线程也有截止时间时取较早的一个
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task, Deadline deadline) {
+        final var effective = Deadline.earliest(deadline, Deadline.current());
+        final var result = new CompletableFuture<T>();
+        if (effective != null && effective.isExpired()) {
+            result.completeExceptionally(new TimeoutException("deadline exceeded before start"));
+            return result;
+        }
+        final var futureTask = new FutureTask<T>(() -> effective == null ? task.call() : effective.call(task)) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    result.completeExceptionally(new CancellationException());
+                    return;
+                }
+                try {
+                    result.complete(get());
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    // done()被调用时任务已经结束，get()不会阻塞
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        if (effective != null) {
+            final var timeout = timer.schedule(() -> {
+                if (result.completeExceptionally(new TimeoutException("deadline exceeded"))) {
+                    futureTask.cancel(true);
+                }
+            }, effective.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            result.whenComplete((value, e) -> timeout.cancel(false));
+        }
+        // 调用方取消时中断任务
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                futureTask.cancel(true);
+            }
+        });
+        try {
+            workers.execute(futureTask);
+        } catch (RejectedExecutionException e) {
+            // 任务没有被执行，以拒绝异常完成，同时取消已经注册的超时
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * 等待中的超时数量
+     */
+    public int pendingDeadlines() {
+        return timer.getQueue().size();
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,70 @@
+package org.shiloh.multithread.future;
+
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 21:00
+ * @description 截止时间测试
+ * 1.与{@link FutureTest}中的TimeTask一样，{@link SlowTask}需要执行2秒，截止时间为500ms，到期后调用方收到TimeoutException，执行任务的线程被中断并释放；
+ * 2.父任务的截止时间为1秒，它执行了300ms后提交子任务，子任务自己要求5秒，实际只剩下约700ms；
+ * 3.向已经关闭的线程池提交带截止时间的任务，调用方立即收到RejectedExecutionException，超时不会留在队列中。
+ */
+public class DeadlineTests {
+
+    public static void main(String[] args) throws InterruptedException {
+        final var threadPool = Executors.newFixedThreadPool(3);
+        final var executor = new DeadlineExecutor(threadPool);
+        final var start = System.nanoTime();
+        try {
+            System.out.println("date = " + executor.submit(new SlowTask(), Deadline.after(500, TimeUnit.MILLISECONDS))
+                    .get());
+        } catch (ExecutionException e) {
+            System.out.printf("%s after %dms%n", e.getCause(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        final var parent = executor.submit(() -> {
+            Thread.sleep(300);
+            System.out.println("parent " + Deadline.current());
+            return executor.submit(() -> {
+                System.out.println("child " + Deadline.current());
+                Thread.sleep(2000);
+                return "child result";
+            }, Deadline.after(5, TimeUnit.SECONDS)).join();
+        }, Deadline.after(1, TimeUnit.SECONDS));
+        try {
+            System.out.println(parent.get());
+        } catch (ExecutionException e) {
+            System.out.println("parent failed: " + e.getCause());
+        }
+        System.out.println("pending deadlines = " + executor.pendingDeadlines());
+
+        final var closedPool = Executors.newSingleThreadExecutor();
+        closedPool.shutdown();
+        final var rejectingExecutor = new DeadlineExecutor(closedPool);
+        try {
+            rejectingExecutor.submit(new SlowTask(), Deadline.after(10, TimeUnit.SECONDS)).get();
+        } catch (ExecutionException e) {
+            System.out.println("rejected: " + e.getCause().getClass().getSimpleName()
+                    + ", pending deadlines = " + rejectingExecutor.pendingDeadlines());
+        }
+        rejectingExecutor.shutdown();
+        executor.shutdown();
+    }
+
+    /**
+     * 睡眠2秒后返回当前时间
+     */
+    private static class SlowTask implements Callable<Date> {
+
+        @Override
+        public Date call() throws InterruptedException {
+            Thread.sleep(2000);
+            return new Date();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.shiloh.multithread.future;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 17:45
+ * @description 执行阻塞查询时可选的线程池模式
+ * CompletableFuture的xxxAsync()方法不传线程池时使用{@link ForkJoinPool#commonPool()}，它的线程数只有CPU核数 - 1，
+ * 是为计算密集型任务设计的。像查询证券代码、价格这种调用Thread.sleep()（实际为网络IO）的阻塞任务，
+ * 几个任务就能把所有线程占满，其余任务只能排队，同时还会影响同一个JVM中所有使用公共线程池的代码。
+ * <p>
+ * {@link #COMMON_POOL}：公共线程池，仅作对照，shutdown()对公共线程池不起作用；
+ * {@link #FIXED_POOL}：固定{@link #FIXED_POOL_SIZE}个线程，并发数超过线程数后排队；
+ * {@link #THREAD_PER_TASK}：每个任务一个平台线程（newCachedThreadPool），并发数受限于操作系统能创建的线程数和内存；
+ * {@link #VIRTUAL_THREAD}：每个任务一个虚拟线程，虚拟线程阻塞时会让出底层的载体线程，几万个并发阻塞任务也只需要少量平台线程。
+ * 虚拟线程需要JDK 21及以上，这里通过反射获取{@code Executors.newVirtualThreadPerTaskExecutor()}，
+ * 当前JDK不支持时{@link #isSupported()}返回false。
+ */
+public enum ExecutorMode {
+
+    COMMON_POOL {
+        @Override
+        public ExecutorService newExecutor() {
+            return ForkJoinPool.commonPool();
+        }
+    },
+
+    FIXED_POOL {
+        @Override
+        public ExecutorService newExecutor() {
+            return Executors.newFixedThreadPool(FIXED_POOL_SIZE);
+        }
+    },
+
+    THREAD_PER_TASK {
+        @Override
+        public ExecutorService newExecutor() {
+            return Executors.newCachedThreadPool();
+        }
+    },
+
+    VIRTUAL_THREAD {
+        @Override
+        public ExecutorService newExecutor() {
+            if (VIRTUAL_THREAD_FACTORY == null) {
+                throw new UnsupportedOperationException("virtual threads require JDK 21 or later, current: "
+                        + Runtime.version());
+            }
+            try {
+                return (ExecutorService) VIRTUAL_THREAD_FACTORY.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("failed to create virtual thread executor", e);
+            }
+        }
+
+        @Override
+        public boolean isSupported() {
+            return VIRTUAL_THREAD_FACTORY != null;
+        }
+    };
+
+    public static final int FIXED_POOL_SIZE = 200;
+
+    private static final MethodHandle VIRTUAL_THREAD_FACTORY = findVirtualThreadFactory();
+
+    /**
+     * 创建线程池，使用完毕后由调用方负责shutdown()
+     */
+    public abstract ExecutorService newExecutor();
+
+    /**
+     * 当前JDK是否支持该模式
+     */
+    public boolean isSupported() {
+        return true;
+    }
+
+    private static MethodHandle findVirtualThreadFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.shiloh.multithread.future;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 18:55
+ * @description 对冲请求测试：与{@link CompletableFutureTests03}一样从新浪和网易查询证券价格
+ * 新浪为主后端，大部分请求10 ~ 30ms返回，但有5%的请求需要500ms（长尾）；网易为备用后端，稳定在20 ~ 40ms返回。
+ * 对冲延迟取新浪延迟的P90，从输出中可以看到：只有少量请求发出了第二个请求，而最大延迟被压到了远低于500ms。
+ * <p>
+ * 最后使用只有1个线程、没有队列的线程池：主请求占用唯一的线程并失败，此时提交备用请求会被拒绝，
+ * 结果应以RejectedExecutionException完成，而不是一直等待。
+ */
+public class HedgedRequestTests {
+
+    public static void main(String[] args) {
+        final var executor = Executors.newCachedThreadPool();
+        final var scheduler = Executors.newSingleThreadScheduledExecutor();
+        final var requester = new HedgedRequester(executor, scheduler, 90, 50, TimeUnit.MILLISECONDS);
+        final var winners = new ConcurrentHashMap<String, LongAdder>();
+        long maxLatency = 0;
+        for (int i = 0; i < 300; i++) {
+            final var result = requester.execute(
+                    "sina", () -> fetchPrice(ThreadLocalRandom.current().nextInt(100) < 5 ? 500 : 10, 20),
+                    "163", () -> fetchPrice(20, 20)
+            ).join();
+            winners.computeIfAbsent(result.getWinner(), k -> new LongAdder()).increment();
+            maxLatency = Math.max(maxLatency, result.getLatencyNanos());
+        }
+        System.out.println("winners = " + winners);
+        System.out.printf("hedge rate = %.1f%%, hedge delay = %dms, max latency = %dms%n",
+                requester.hedgeRate() * 100, TimeUnit.NANOSECONDS.toMillis(requester.hedgeDelayNanos()),
+                TimeUnit.NANOSECONDS.toMillis(maxLatency));
+        System.out.println("sina latency: " + requester.getPrimaryLatency());
+
+        final var singleThread = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        final var rejecting = new HedgedRequester(singleThread, scheduler, 90, 1, TimeUnit.SECONDS);
+        try {
+            rejecting.execute("sina", () -> {
+                throw new IllegalStateException("sina unavailable");
+            }, "163", () -> fetchPrice(20, 20)).get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            System.out.println("both failed: " + e.getCause().getClass().getSimpleName());
+        } catch (InterruptedException | TimeoutException e) {
+            System.out.println("result not completed: " + e);
+        }
+        singleThread.shutdownNow();
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    private static Double fetchPrice(long baseMillis, int jitterMillis) throws InterruptedException {
+        Thread.sleep(baseMillis + ThreadLocalRandom.current().nextInt(jitterMillis));
+        return 5 + Math.random() * 20;
+    }
+}
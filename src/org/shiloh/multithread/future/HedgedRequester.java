@@ -0,0 +1,241 @@
+package org.shiloh.multithread.future;
+
+import org.shiloh.multithread.threadpool.LatencyHistogram;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 18:35
+ * @description 对冲请求（hedged request）：降低长尾延迟，同时不会让后端的请求量翻倍
+ * {@link CompletableFutureTests03}每次都同时查询新浪和网易，用anyOf()取先返回的结果，存在几个问题：
+ * 1.每次查询都要请求2个后端，后端压力翻倍；
+ * 2.先返回的结果拿到后，另一个查询仍在继续执行，没有被取消；
+ * 3.anyOf()返回CompletableFuture&lt;Object&gt;，需要强制类型转换，也不知道是哪个后端返回的。
+ * <p>
+ * HedgedRequester的做法：
+ * 1.先只请求主后端；
+ * 2.主后端在“对冲延迟”内没有返回，才请求备用后端，对冲延迟取主后端历史延迟的第percentile百分位（例如P95），
+ * 这样只有大约(100 - percentile)%的请求会发出第二个请求；历史样本不足{@link #MIN_SAMPLES}个时使用初始延迟；
+ * 3.主后端失败时立即请求备用后端，不再等待对冲延迟；
+ * 4.任意一个后端返回后，取消（并中断）其他仍在执行的请求，结果中带有胜出的后端名称；
+ * 5.线程池拒绝执行某个请求时，按这个请求失败处理，2个请求都失败（或被拒绝）时结果以异常完成，不会一直等待。
+ * <p>
+ * 主后端被取消时也会把已经等待的时间记入延迟统计，否则慢请求总是被取消、从不计入，统计出的延迟会越来越乐观。
+ */
+public class HedgedRequester {
+
+    /**
+     * 使用历史延迟计算对冲延迟所需的最少样本数
+     */
+    public static final int MIN_SAMPLES = 100;
+
+    private final ExecutorService executor;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final double percentile;
+
+    private final long initialDelayNanos;
+
+    private final LatencyHistogram primaryLatency = new LatencyHistogram();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder hedgedRequests = new LongAdder();
+
+    /**
+     * @param executor     执行后端请求的线程池，请求是阻塞的，取消时会中断执行请求的线程
+     * @param scheduler    用于在对冲延迟后发出备用请求
+     * @param percentile   对冲延迟取主后端延迟的百分位，例如95
+     * @param initialDelay 样本不足时使用的对冲延迟
+     */
+    public HedgedRequester(ExecutorService executor, ScheduledExecutorService scheduler, double percentile,
+                           long initialDelay, TimeUnit unit) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in (0, 100]: " + percentile);
+        }
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.percentile = percentile;
+        this.initialDelayNanos = unit.toNanos(initialDelay);
+    }
+
+    public <T> CompletableFuture<HedgedResult<T>> execute(String primaryName, Callable<T> primary,
+                                                          String secondaryName, Callable<T> secondary) {
+        requests.increment();
+        final var attempt = new Attempt<T>(primaryName, primary, secondaryName, secondary);
+        attempt.start();
+        return attempt.result;
+    }
+
+    /**
+     * 当前使用的对冲延迟
+     */
+    public long hedgeDelayNanos() {
+        if (primaryLatency.count() < MIN_SAMPLES) {
+            return initialDelayNanos;
+        }
+        return primaryLatency.percentile(percentile);
+    }
+
+    /**
+     * 发出了备用请求的比例
+     */
+    public double hedgeRate() {
+        final var total = requests.sum();
+        return total == 0 ? 0 : (double) hedgedRequests.sum() / total;
+    }
+
+    public LatencyHistogram getPrimaryLatency() {
+        return primaryLatency;
+    }
+
+    /**
+     * 一次对冲请求的状态
+     */
+    private final class Attempt<T> {
+
+        private final CompletableFuture<HedgedResult<T>> result = new CompletableFuture<>();
+
+        private final String primaryName;
+
+        private final Callable<T> primary;
+
+        private final String secondaryName;
+
+        private final Callable<T> secondary;
+
+        private final long startNanos = System.nanoTime();
+
+        private final AtomicBoolean secondaryStarted = new AtomicBoolean();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        /**
+         * 请求已经执行结束（成功或失败），取消时跳过，避免中断正在回调结果的线程
+         */
+        private volatile boolean primaryFinished;
+
+        private volatile boolean secondaryFinished;
+
+        private volatile Future<?> primaryTask;
+
+        private volatile Future<?> secondaryTask;
+
+        private volatile ScheduledFuture<?> hedgeTimer;
+
+        Attempt(String primaryName, Callable<T> primary, String secondaryName, Callable<T> secondary) {
+            this.primaryName = primaryName;
+            this.primary = primary;
+            this.secondaryName = secondaryName;
+            this.secondary = secondary;
+        }
+
+        void start() {
+            // 无论结果如何完成（包括调用方主动取消），都取消其余仍在执行的请求
+            result.whenComplete((value, e) -> cancelAll());
+            try {
+                primaryTask = executor.submit(() -> run(primaryName, primary, true));
+            } catch (RejectedExecutionException e) {
+                finish(true);
+                fail(e, true);
+                return;
+            }
+            try {
+                hedgeTimer = scheduler.schedule(this::startSecondary, hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // 无法定时发出备用请求，只依靠主请求，主请求失败时仍然会立即请求备用后端
+            }
+            if (result.isDone()) {
+                cancelAll();
+            }
+        }
+
+        private void startSecondary() {
+            if (result.isDone() || !secondaryStarted.compareAndSet(false, true)) {
+                return;
+            }
+            hedgedRequests.increment();
+            try {
+                secondaryTask = executor.submit(() -> run(secondaryName, secondary, false));
+            } catch (RejectedExecutionException e) {
+                // 可能是在主请求失败的回调中调用的，异常不能抛出去，否则会被主请求的FutureTask吞掉
+                finish(false);
+                fail(e, false);
+                return;
+            }
+            if (result.isDone()) {
+                cancelAll();
+            }
+        }
+
+        private void run(String name, Callable<T> call, boolean isPrimary) {
+            try {
+                final var value = call.call();
+                final var latency = System.nanoTime() - startNanos;
+                finish(isPrimary);
+                if (isPrimary) {
+                    primaryLatency.record(latency);
+                }
+                result.complete(new HedgedResult<>(value, name, secondaryStarted.get(), latency));
+            } catch (Throwable e) {
+                finish(isPrimary);
+                fail(e, isPrimary);
+            }
+        }
+
+        /**
+         * 一个请求执行失败或者被线程池拒绝
+         */
+        private void fail(Throwable e, boolean isPrimary) {
+            if (result.isDone()) {
+                // 已经有结果了，这是被取消时产生的中断异常
+                return;
+            }
+            // 2个后端都失败才算失败
+            if (failures.incrementAndGet() == 2) {
+                result.completeExceptionally(e);
+            } else if (isPrimary) {
+                // 主后端失败时不再等待对冲延迟，立即请求备用后端
+                startSecondary();
+            }
+        }
+
+        private void finish(boolean isPrimary) {
+            if (isPrimary) {
+                primaryFinished = true;
+            } else {
+                secondaryFinished = true;
+            }
+        }
+
+        private void cancelAll() {
+            final var timer = hedgeTimer;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            final var primaryFuture = primaryTask;
+            if (primaryFuture != null && !primaryFinished) {
+                if (primaryFuture.cancel(true)) {
+                    // 被取消的主请求也计入延迟，值为它已经等待的时间
+                    primaryLatency.record(System.nanoTime() - startNanos);
+                }
+            }
+            final var secondaryFuture = secondaryTask;
+            if (secondaryFuture != null && !secondaryFinished) {
+                secondaryFuture.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.shiloh.multithread.future;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 18:30
+ * @description {@link HedgedRequester}的查询结果：结果值、胜出的后端，以及是否发出了对冲请求
+ *
+ * @param <T> 结果类型
+ */
+public class HedgedResult<T> {
+
+    private final T value;
+
+    private final String winner;
+
+    private final boolean hedged;
+
+    private final long latencyNanos;
+
+    HedgedResult(T value, String winner, boolean hedged, long latencyNanos) {
+        this.value = value;
+        this.winner = winner;
+        this.hedged = hedged;
+        this.latencyNanos = latencyNanos;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * 返回结果的后端名称
+     */
+    public String getWinner() {
+        return winner;
+    }
+
+    /**
+     * 是否向备用后端发出了请求
+     */
+    public boolean isHedged() {
+        return hedged;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "HedgedResult{value=" + value + ", winner=" + winner + ", hedged=" + hedged
+                + ", latency=" + latencyNanos / 1000 + "us}";
+    }
+}
@@ -0,0 +1,166 @@
+package org.shiloh.multithread.future;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 19:50
+ * @description 微批处理：把单个的查询请求攒成一批，用一次批量调用完成
+ * {@link CompletableFutureTests03#fetchPriceByCodeAndUrl(String, String)}每查询1个证券代码就要发起1次请求，
+ * 而行情服务一般都支持批量查询，请求数量多时，每次请求的固定开销（网络往返、鉴权、序列化）远大于查询本身。
+ * <p>
+ * 调用方仍然通过{@link #submit(Object)}提交单个key，拿到属于自己的CompletableFuture；MicroBatcher在内部攒批：
+ * 1.批次中的第1个请求到达时启动计时，等待maxDelay后发出批量调用；
+ * 2.批次中不同的key达到maxBatchSize个时，不再等待，立即发出批量调用；
+ * 3.批量调用返回后，按key分别完成每个调用方的CompletableFuture，同一批次中重复的key只查询1次；
+ * 批量结果中缺少某个key时，对应的调用方收到{@link NoSuchElementException}；批量调用失败时，该批次的所有调用方都收到这个异常，
+ * 批量调用返回null或者以null完成时，按失败处理，所有调用方收到{@link NullPointerException}；
+ * 4.scheduler拒绝计时任务（例如已经shutdown）时不再攒批，立即发出只包含当前请求的批量调用。
+ * <p>
+ * 攒批只在加锁的情况下修改当前批次，批量调用在锁外执行。
+ *
+ * @param <K> 查询的key，例如证券代码
+ * @param <V> 查询结果，例如价格
+ */
+public class MicroBatcher<K, V> {
+
+    private final Function<List<K>, CompletableFuture<Map<K, V>>> bulkLoader;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final int maxBatchSize;
+
+    private final long maxDelayNanos;
+
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * 正在攒的批次，为null表示当前没有等待中的请求
+     */
+    private Batch<K, V> current;
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * @param bulkLoader   批量查询，返回key到结果的映射
+     * @param scheduler    用于在maxDelay后发出批量调用
+     * @param maxBatchSize 每批最多包含的不同key数量
+     * @param maxDelay     第1个请求最多等待的时间
+     */
+    public MicroBatcher(Function<List<K>, CompletableFuture<Map<K, V>>> bulkLoader,
+                        ScheduledExecutorService scheduler, int maxBatchSize, long maxDelay, TimeUnit unit) {
+        if (maxBatchSize <= 0 || maxDelay < 0) {
+            throw new IllegalArgumentException("require maxBatchSize > 0 and maxDelay >= 0");
+        }
+        this.bulkLoader = Objects.requireNonNull(bulkLoader);
+        this.scheduler = Objects.requireNonNull(scheduler);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+    }
+
+    public CompletableFuture<V> submit(K key) {
+        final var future = new CompletableFuture<V>();
+        requests.increment();
+        Batch<K, V> full = null;
+        lock.lock();
+        try {
+            if (current == null) {
+                final var batch = new Batch<K, V>();
+                current = batch;
+                try {
+                    batch.timer = scheduler.schedule(() -> flush(batch), maxDelayNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // 没有计时任务就没有人会发出这个批次，timer保持为null，下面立即发出
+                }
+            }
+            current.requests.computeIfAbsent(key, k -> new ArrayList<>(1)).add(future);
+            if (current.requests.size() >= maxBatchSize || current.timer == null) {
+                full = current;
+                current = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            if (full.timer != null) {
+                full.timer.cancel(false);
+            }
+            dispatch(full);
+        }
+        return future;
+    }
+
+    /**
+     * 平均每批包含的请求数
+     */
+    public double averageBatchSize() {
+        final var count = batches.sum();
+        return count == 0 ? 0 : (double) requests.sum() / count;
+    }
+
+    private void flush(Batch<K, V> batch) {
+        lock.lock();
+        try {
+            if (current != batch) {
+                // 已经因为攒满而发出了
+                return;
+            }
+            current = null;
+        } finally {
+            lock.unlock();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        batches.increment();
+        final var keys = new ArrayList<>(batch.requests.keySet());
+        CompletableFuture<Map<K, V>> result;
+        try {
+            result = Objects.requireNonNull(bulkLoader.apply(keys), "bulkLoader returned null");
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((values, e) -> {
+            final var failure = e == null && values == null
+                    ? new NullPointerException("bulkLoader completed with null map") : e;
+            batch.requests.forEach((key, futures) -> complete(key, futures, values, failure));
+        });
+    }
+
+    private static <K, V> void complete(K key, List<CompletableFuture<V>> futures, Map<K, V> values,
+                                        Throwable failure) {
+        for (CompletableFuture<V> future : futures) {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else if (values.containsKey(key)) {
+                future.complete(values.get(key));
+            } else {
+                future.completeExceptionally(new NoSuchElementException("no result for key: " + key));
+            }
+        }
+    }
+
+    private static final class Batch<K, V> {
+
+        private final Map<K, List<CompletableFuture<V>>> requests = new LinkedHashMap<>();
+
+        private ScheduledFuture<?> timer;
+    }
+}
@@ -0,0 +1,79 @@
+package org.shiloh.multithread.future;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 20:15
+ * @description 微批处理测试
+ * 同时查询2000个证券代码的价格，行情服务每次调用固定耗时20ms，每个代码额外耗时10us，线程池只有8个线程：
+ * 逐个查询需要2000次调用，8个线程并发也要约2000 / 8 * 20ms = 5秒；
+ * 攒批（每批最多100个代码，最多等待500us）后只需要约20次调用，并且每个调用方拿到的价格与逐个查询一致。
+ * <p>
+ * 最后验证2种异常情况下调用方不会一直等待：批量查询以null完成时所有调用方收到NullPointerException；
+ * scheduler已经shutdown时请求被立即发出。
+ */
+public class MicroBatcherTests {
+
+    private static final int REQUESTS = 2000;
+
+    public static void main(String[] args) {
+        final var executor = Executors.newFixedThreadPool(8);
+        final var scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final var single = new StubQuoteBackend(executor, 20, 10);
+            var start = System.nanoTime();
+            final var singleFutures = new CompletableFuture<?>[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                singleFutures[i] = single.fetchPrice("60" + i);
+            }
+            CompletableFuture.allOf(singleFutures).join();
+            System.out.printf("single: %d calls in %dms%n", single.calls(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            final var bulk = new StubQuoteBackend(executor, 20, 10);
+            final var batcher = new MicroBatcher<String, Double>(bulk::fetchPrices, scheduler, 100,
+                    500, TimeUnit.MICROSECONDS);
+            start = System.nanoTime();
+            final var batchedFutures = new CompletableFuture<?>[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                batchedFutures[i] = batcher.submit("60" + i);
+            }
+            CompletableFuture.allOf(batchedFutures).join();
+            System.out.printf("batched: %d calls in %dms, average batch size %.1f%n", bulk.calls(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), batcher.averageBatchSize());
+            for (int i = 0; i < REQUESTS; i++) {
+                if (!singleFutures[i].join().equals(batchedFutures[i].join())) {
+                    System.out.println("price mismatch for code 60" + i);
+                }
+            }
+
+            final var nullLoader = new MicroBatcher<String, Double>(keys -> CompletableFuture.completedFuture(null),
+                    scheduler, 2, 500, TimeUnit.MICROSECONDS);
+            final var first = nullLoader.submit("600000");
+            final var second = nullLoader.submit("600001");
+            try {
+                CompletableFuture.allOf(first, second).join();
+            } catch (CompletionException e) {
+                System.out.println("null map: " + e.getCause() + ", both failed = "
+                        + (first.isCompletedExceptionally() && second.isCompletedExceptionally()));
+            }
+
+            final var stoppedScheduler = Executors.newSingleThreadScheduledExecutor();
+            stoppedScheduler.shutdown();
+            final var rejected = new MicroBatcher<String, Double>(
+                    keys -> CompletableFuture.completedFuture(Map.of(keys.get(0), 1.0)), stoppedScheduler, 100,
+                    500, TimeUnit.MICROSECONDS);
+            System.out.println("scheduler shutdown: " + List.of(rejected.submit("600000").join(),
+                    rejected.submit("600001").join()));
+        } finally {
+            executor.shutdown();
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.shiloh.multithread.future;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 17:55
+ * @description 证券价格查询流水线：根据证券名称查询证券代码，再根据证券代码查询价格
+ * 流程与{@link CompletableFutureTests02}相同，区别在于每一步都在构造时传入的线程池中执行，而不是默认的公共线程池，
+ * 阻塞的查询可以交给{@link ExecutorMode#VIRTUAL_THREAD}等适合阻塞任务的线程池。
+ */
+public class QuotePipeline {
+
+    private final Executor executor;
+
+    private final Function<String, String> codeLookup;
+
+    private final Function<String, Double> priceLookup;
+
+    /**
+     * 使用{@link CompletableFutureTests02}中的查询方法
+     */
+    public QuotePipeline(Executor executor) {
+        this(executor, CompletableFutureTests02::queryCodeByName, CompletableFutureTests02::fetchPriceByCode);
+    }
+
+    /**
+     * @param executor    执行查询的线程池
+     * @param codeLookup  根据证券名称查询证券代码，允许阻塞
+     * @param priceLookup 根据证券代码查询价格，允许阻塞
+     */
+    public QuotePipeline(Executor executor, Function<String, String> codeLookup,
+                         Function<String, Double> priceLookup) {
+        this.executor = Objects.requireNonNull(executor);
+        this.codeLookup = Objects.requireNonNull(codeLookup);
+        this.priceLookup = Objects.requireNonNull(priceLookup);
+    }
+
+    public CompletableFuture<Double> fetchPrice(String name) {
+        return CompletableFuture.supplyAsync(() -> codeLookup.apply(name), executor)
+                .thenApplyAsync(priceLookup, executor);
+    }
+}
@@ -0,0 +1,78 @@
+package org.shiloh.multithread.future;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 18:05
+ * @description 不同线程池模式下{@link QuotePipeline}的并发查询压测
+ * 每次查询证券代码和查询价格各阻塞{@link #LOOKUP_MILLIS}毫秒，即单次查询理想耗时为2 * LOOKUP_MILLIS。
+ * 同时发起concurrency个查询，统计全部完成的耗时和吞吐量：
+ * 线程数不足时查询只能排队，总耗时随并发数线性增长；线程（或虚拟线程）足够时总耗时接近单次查询的耗时。
+ * 注意：公共线程池的并行度不超过1时（单核机器），CompletableFuture会把传入的公共线程池替换成每个任务新建一个线程，
+ * 此时{@link ExecutorMode#COMMON_POOL}的结果与{@link ExecutorMode#THREAD_PER_TASK}接近，没有参考意义。
+ * <p>
+ * 用法：java ... QuotePipelineLoadTests [并发数1,并发数2,...]，默认为100,1000,10000
+ */
+public class QuotePipelineLoadTests {
+
+    private static final long LOOKUP_MILLIS = 50;
+
+    public static void main(String[] args) throws InterruptedException {
+        final var concurrencies = args.length > 0 ? args[0].split(",") : new String[]{"100", "1000", "10000"};
+        for (String value : concurrencies) {
+            final var concurrency = Integer.parseInt(value.trim());
+            for (ExecutorMode mode : ExecutorMode.values()) {
+                if (!mode.isSupported()) {
+                    System.out.printf("%-16s concurrency=%-6d not supported on JDK %s%n", mode, concurrency,
+                            Runtime.version().feature());
+                    continue;
+                }
+                run(mode, concurrency);
+            }
+        }
+    }
+
+    private static void run(ExecutorMode mode, int concurrency) throws InterruptedException {
+        final var executor = mode.newExecutor();
+        final var pipeline = new QuotePipeline(executor, QuotePipelineLoadTests::queryCode,
+                QuotePipelineLoadTests::fetchPrice);
+        final var futures = new CompletableFuture<?>[concurrency];
+        final var start = System.nanoTime();
+        try {
+            // 提交本身也可能失败（例如无法再创建平台线程），必须放在try中，保证线程池被关闭
+            for (int i = 0; i < concurrency; i++) {
+                futures[i] = pipeline.fetchPrice("stock-" + i);
+            }
+            CompletableFuture.allOf(futures).join();
+            final var elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.printf("%-16s concurrency=%-6d elapsed=%6dms throughput=%8.0f lookups/s%n", mode,
+                    concurrency, elapsedMillis, concurrency * 1000.0 / Math.max(1, elapsedMillis));
+        } catch (RuntimeException | OutOfMemoryError e) {
+            // 平台线程过多时可能无法再创建线程，提交或执行时都可能发生
+            System.out.printf("%-16s concurrency=%-6d failed: %s%n", mode, concurrency, e);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static String queryCode(String name) {
+        sleep();
+        return "code-" + name;
+    }
+
+    private static Double fetchPrice(String code) {
+        sleep();
+        return 5 + Math.random() * 20;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(LOOKUP_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
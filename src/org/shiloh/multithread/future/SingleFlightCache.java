@@ -0,0 +1,222 @@
+package org.shiloh.multithread.future;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 19:15
+ * @description 合并并发请求（single-flight）的异步缓存
+ * {@link CompletableFutureTests02#queryCodeByName(String)}每次调用都要执行一次100ms的查询，
+ * 即使几百个线程同时查询同一个证券也是如此。SingleFlightCache在查询前面加了一层缓存：
+ * <p>
+ * 1.合并请求：同一个key正在加载时，后续请求直接共享正在执行的CompletableFuture，同一时刻每个key最多只有1次加载；
+ * 2.过期时间（ttl）：加载成功后的ttl时间内直接返回缓存的结果；
+ * 3.过期后仍可使用（staleTtl）：超过ttl但还在ttl + staleTtl之内时，立即返回旧值，同时在后台刷新（同一时刻只有1次刷新），
+ * 刷新成功后替换旧值，刷新失败则保留旧值，下次访问再重试；超过ttl + staleTtl后必须等待重新加载；
+ * 4.容量限制：缓存数量超过maximumSize时，按写入顺序淘汰最早写入的缓存（FIFO），重新加载、刷新成功都算一次写入；
+ * 5.加载失败的结果不会被缓存，正在等待的调用方都会收到这个异常，之后的请求会重新加载。
+ * <p>
+ * 返回给调用方的是共享结果的副本（{@link CompletableFuture#copy()}），调用方取消或手动完成它不会影响缓存中的结果。
+ * <p>
+ * 读取只访问ConcurrentHashMap，不加锁；新增、替换、删除缓存时在{@link #writeOrder}上加锁，
+ * 同时修改entries和writeOrder，两者中的key始终一一对应，被替换、删除的缓存不会留在writeOrder中。
+ *
+ * @param <K> 缓存的key
+ * @param <V> 缓存的值
+ */
+public class SingleFlightCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 按写入顺序排列的key，用于淘汰，只在持有自身的锁时访问
+     */
+    private final LinkedHashSet<K> writeOrder = new LinkedHashSet<>();
+
+    private final Function<? super K, ? extends CompletableFuture<V>> loader;
+
+    private final long ttlNanos;
+
+    private final long staleNanos;
+
+    private final int maximumSize;
+
+    /**
+     * @param loader      异步加载方法
+     * @param ttl         缓存有效期
+     * @param staleTtl    过期后仍可使用旧值（同时后台刷新）的时长，为0时不返回过期的值
+     * @param maximumSize 最多缓存的数量
+     */
+    public SingleFlightCache(Function<? super K, ? extends CompletableFuture<V>> loader, long ttl, long staleTtl,
+                             TimeUnit unit, int maximumSize) {
+        if (ttl < 0 || staleTtl < 0 || maximumSize <= 0) {
+            throw new IllegalArgumentException("require ttl >= 0, staleTtl >= 0 and maximumSize > 0");
+        }
+        this.loader = Objects.requireNonNull(loader);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.staleNanos = unit.toNanos(staleTtl);
+        this.maximumSize = maximumSize;
+    }
+
+    public CompletableFuture<V> get(K key) {
+        while (true) {
+            var entry = entries.get(key);
+            if (entry == null) {
+                final var created = new Entry<K, V>(key);
+                if (insert(created)) {
+                    return startLoad(created);
+                }
+                continue;
+            }
+            if (!entry.future.isDone()) {
+                // 正在加载，共享同一次加载的结果
+                return entry.future.copy();
+            }
+            if (entry.future.isCompletedExceptionally()) {
+                // 加载失败的缓存通常已被删除，这里是删除之前的一小段时间窗口
+                remove(entry);
+                continue;
+            }
+            final var age = System.nanoTime() - entry.loadedNanos;
+            if (age < ttlNanos) {
+                return entry.future.copy();
+            }
+            if (age < ttlNanos + staleNanos) {
+                refresh(entry);
+                return entry.future.copy();
+            }
+            // 彻底过期，只有替换成功的线程负责加载，其余线程重新读取
+            final var replacement = new Entry<K, V>(key);
+            if (replace(entry, replacement)) {
+                return startLoad(replacement);
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (writeOrder) {
+            if (entries.remove(key) != null) {
+                writeOrder.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 参与淘汰排序的key数量，始终与{@link #size()}相同，用于测试
+     */
+    int trackedKeys() {
+        synchronized (writeOrder) {
+            return writeOrder.size();
+        }
+    }
+
+    private CompletableFuture<V> startLoad(Entry<K, V> entry) {
+        load(entry.key).whenComplete((value, e) -> {
+            if (e != null) {
+                // 先删除再通知调用方，保证调用方重试时会重新加载
+                remove(entry);
+                entry.future.completeExceptionally(e);
+            } else {
+                entry.loadedNanos = System.nanoTime();
+                entry.future.complete(value);
+            }
+        });
+        return entry.future.copy();
+    }
+
+    private void refresh(Entry<K, V> stale) {
+        if (!stale.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        load(stale.key).whenComplete((value, e) -> {
+            if (e != null) {
+                // 刷新失败，保留旧值，下次访问再刷新
+                stale.refreshing.set(false);
+                return;
+            }
+            final var fresh = new Entry<K, V>(stale.key);
+            fresh.loadedNanos = System.nanoTime();
+            fresh.future.complete(value);
+            replace(stale, fresh);
+        });
+    }
+
+    private CompletableFuture<V> load(K key) {
+        try {
+            return Objects.requireNonNull(loader.apply(key), "loader returned null");
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * key不存在时放入缓存，并淘汰超出容量的最早写入的缓存
+     *
+     * @return 是否放入成功，key已存在时返回false
+     */
+    private boolean insert(Entry<K, V> entry) {
+        synchronized (writeOrder) {
+            if (entries.putIfAbsent(entry.key, entry) != null) {
+                return false;
+            }
+            writeOrder.add(entry.key);
+            final var iterator = writeOrder.iterator();
+            while (entries.size() > maximumSize && iterator.hasNext()) {
+                final var eldest = iterator.next();
+                iterator.remove();
+                entries.remove(eldest);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 用fresh替换current，替换成功后key移到写入顺序的末尾
+     */
+    private boolean replace(Entry<K, V> current, Entry<K, V> fresh) {
+        synchronized (writeOrder) {
+            if (!entries.replace(current.key, current, fresh)) {
+                return false;
+            }
+            writeOrder.remove(current.key);
+            writeOrder.add(current.key);
+            return true;
+        }
+    }
+
+    private void remove(Entry<K, V> entry) {
+        synchronized (writeOrder) {
+            if (entries.remove(entry.key, entry)) {
+                writeOrder.remove(entry.key);
+            }
+        }
+    }
+
+    private static final class Entry<K, V> {
+
+        private final K key;
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        /**
+         * 加载成功的时间，在future完成之前写入
+         */
+        private volatile long loadedNanos;
+
+        private Entry(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.shiloh.multithread.future;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 19:35
+ * @description 合并并发请求的缓存测试
+ * 200个请求同时查询“中国石油”的价格，{@link CompletableFutureTests02#queryCodeByName(String)}和
+ * {@link CompletableFutureTests02#fetchPriceByCode(String)}都只会打印一次，说明并发请求被合并成了1次查询。
+ * 缓存有效期为1秒，过期后2秒内访问会先拿到旧价格，同时在后台刷新。
+ * 最后反复刷新、删除、加载失败，检查参与淘汰排序的key数量始终与缓存数量一致，不会随刷新次数增长。
+ */
+public class SingleFlightCacheTests {
+
+    public static void main(String[] args) throws InterruptedException {
+        final var codeCache = new SingleFlightCache<String, String>(
+                name -> CompletableFuture.supplyAsync(() -> CompletableFutureTests02.queryCodeByName(name)),
+                1, 2, TimeUnit.SECONDS, 1000);
+        final var priceCache = new SingleFlightCache<String, Double>(
+                code -> CompletableFuture.supplyAsync(() -> CompletableFutureTests02.fetchPriceByCode(code)),
+                1, 2, TimeUnit.SECONDS, 1000);
+        final var futures = new CompletableFuture<?>[200];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = codeCache.get("中国石油").thenCompose(priceCache::get);
+        }
+        CompletableFuture.allOf(futures).join();
+        System.out.println("证券价格：" + futures[0].join() + "，" + futures[futures.length - 1].join());
+        // 过期后访问：立即返回旧价格，后台刷新
+        Thread.sleep(1500);
+        System.out.println("过期后的价格：" + codeCache.get("中国石油").thenCompose(priceCache::get).join());
+        Thread.sleep(500);
+        System.out.println("刷新后的价格：" + codeCache.get("中国石油").thenCompose(priceCache::get).join());
+
+        // 有效期1纳秒、过期后1小时内可用，每次访问都会触发后台刷新；key为负数时加载失败
+        final var hotCache = new SingleFlightCache<Integer, Integer>(
+                key -> key < 0 ? CompletableFuture.failedFuture(new IllegalArgumentException("key = " + key))
+                        : CompletableFuture.completedFuture(key),
+                1, TimeUnit.HOURS.toNanos(1), TimeUnit.NANOSECONDS, 100);
+        for (int i = 0; i < 10000; i++) {
+            hotCache.get(i % 5);
+            hotCache.get(-1).exceptionally(e -> null);
+            if (i % 7 == 0) {
+                hotCache.invalidate(i % 5);
+            }
+        }
+        System.out.println("hotCache: size = " + hotCache.size() + ", trackedKeys = " + hotCache.trackedKeys()
+                + ", expected both <= 5");
+    }
+}
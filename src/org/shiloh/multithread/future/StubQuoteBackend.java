@@ -0,0 +1,70 @@
+package org.shiloh.multithread.future;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 20:05
+ * @description 本地模拟的行情服务，延迟可配置
+ * 每次调用的延迟 = 固定开销callMillis + 每个证券代码的开销perCodeMicros，
+ * 用于模拟“每次请求的固定开销远大于单个代码的查询开销”的情况。
+ */
+public class StubQuoteBackend {
+
+    private final Executor executor;
+
+    private final long callMillis;
+
+    private final long perCodeMicros;
+
+    private final LongAdder calls = new LongAdder();
+
+    public StubQuoteBackend(Executor executor, long callMillis, long perCodeMicros) {
+        this.executor = executor;
+        this.callMillis = callMillis;
+        this.perCodeMicros = perCodeMicros;
+    }
+
+    public CompletableFuture<Double> fetchPrice(String code) {
+        return CompletableFuture.supplyAsync(() -> {
+            simulateLatency(1);
+            return price(code);
+        }, executor);
+    }
+
+    public CompletableFuture<Map<String, Double>> fetchPrices(List<String> codes) {
+        return CompletableFuture.supplyAsync(() -> {
+            simulateLatency(codes.size());
+            final var prices = new HashMap<String, Double>(codes.size() * 2);
+            for (String code : codes) {
+                prices.put(code, price(code));
+            }
+            return prices;
+        }, executor);
+    }
+
+    /**
+     * 被调用的次数
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    private void simulateLatency(int codes) {
+        calls.increment();
+        try {
+            Thread.sleep(callMillis + codes * perCodeMicros / 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Double price(String code) {
+        return 5 + Math.floorMod(code.hashCode(), 2000) / 100.0;
+    }
+}
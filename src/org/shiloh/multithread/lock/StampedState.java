@@ -0,0 +1,172 @@
+package org.shiloh.multithread.lock;
+
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 15:10
+ * @description 基于{@link StampedLock}的版本化状态容器，把{@link Point}中手写的乐观读流程抽取成通用组件
+ * <p>
+ * 读取：{@link #read(Function)}先用乐观读执行reader，validate()成功就直接返回，整个过程不会修改锁的状态，
+ * 读线程之间没有任何CAS竞争；如果读取过程中发生了写入，最多重试maxOptimisticRetries次乐观读，仍然失败再退化为悲观读锁。
+ * <p>
+ * 条件更新：{@link #updateIf(Predicate, Consumer)}实现了{@link Point#distanceFromOrigin()}注释中提到的“读锁升级为写锁”：
+ * 先乐观地判断条件，条件不满足时直接返回，不需要加任何锁；条件满足时获取悲观读锁再判断一次，
+ * 然后通过tryConvertToWriteLock()把读锁原地升级为写锁执行修改，升级失败（有其他读线程持有读锁）时释放读锁，
+ * 改为获取写锁并重新判断条件。
+ * <p>
+ * 注意：乐观读期间写线程可能正在修改状态，reader看到的可能是不一致的中间状态，
+ * 所以reader必须是只读的、没有副作用的，并且不能把读到的可变对象引用泄露出去。
+ * 乐观读期间reader抛出的异常，如果validate()失败就当作读取无效重试，validate()成功才会抛给调用方。
+ * StampedLock不可重入，reader、mutator内部不能再访问同一个StampedState。
+ *
+ * @param <S> 被保护的可变状态类型
+ */
+public class StampedState<S> {
+
+    /**
+     * 默认的乐观读次数
+     */
+    public static final int DEFAULT_OPTIMISTIC_RETRIES = 2;
+
+    private final StampedLock stampedLock = new StampedLock();
+
+    private final S state;
+
+    private final int maxOptimisticRetries;
+
+    public StampedState(S state) {
+        this(state, DEFAULT_OPTIMISTIC_RETRIES);
+    }
+
+    /**
+     * @param state                被保护的状态，只能通过当前容器访问
+     * @param maxOptimisticRetries 乐观读的最多次数，为0时总是使用悲观读锁
+     */
+    public StampedState(S state, int maxOptimisticRetries) {
+        if (maxOptimisticRetries < 0) {
+            throw new IllegalArgumentException("maxOptimisticRetries must not be negative: " + maxOptimisticRetries);
+        }
+        this.state = Objects.requireNonNull(state);
+        this.maxOptimisticRetries = maxOptimisticRetries;
+    }
+
+    public <R> R read(Function<? super S, ? extends R> reader) {
+        for (int i = 0; i < maxOptimisticRetries; i++) {
+            final var stamp = stampedLock.tryOptimisticRead();
+            if (stamp == 0) {
+                // 写锁被占用，乐观读一定会失败
+                continue;
+            }
+            final R result;
+            try {
+                result = reader.apply(state);
+            } catch (RuntimeException e) {
+                if (stampedLock.validate(stamp)) {
+                    throw e;
+                }
+                continue;
+            }
+            if (stampedLock.validate(stamp)) {
+                return result;
+            }
+        }
+        final var stamp = stampedLock.readLock();
+        try {
+            return reader.apply(state);
+        } finally {
+            stampedLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 结果为double的读取，避免装箱，流程与{@link #read(Function)}相同
+     *
+     * @author shiloh
+     * @date 2026/10/18 15:20
+     */
+    public double readDouble(ToDoubleFunction<? super S> reader) {
+        for (int i = 0; i < maxOptimisticRetries; i++) {
+            final var stamp = stampedLock.tryOptimisticRead();
+            if (stamp == 0) {
+                continue;
+            }
+            final double result;
+            try {
+                result = reader.applyAsDouble(state);
+            } catch (RuntimeException e) {
+                if (stampedLock.validate(stamp)) {
+                    throw e;
+                }
+                continue;
+            }
+            if (stampedLock.validate(stamp)) {
+                return result;
+            }
+        }
+        final var stamp = stampedLock.readLock();
+        try {
+            return reader.applyAsDouble(state);
+        } finally {
+            stampedLock.unlockRead(stamp);
+        }
+    }
+
+    public void write(Consumer<? super S> mutator) {
+        final var stamp = stampedLock.writeLock();
+        try {
+            mutator.accept(state);
+        } finally {
+            stampedLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * if-then-update：条件满足时才修改状态
+     *
+     * @param predicate 修改的前提条件，会被执行多次，必须没有副作用
+     * @param mutator   条件满足时执行的修改，只会在持有写锁时执行1次
+     * @return 是否执行了修改
+     * @author shiloh
+     * @date 2026/10/18 15:25
+     */
+    public boolean updateIf(Predicate<? super S> predicate, Consumer<? super S> mutator) {
+        // 乐观判断：条件不满足是最常见的情况，此时不需要加任何锁
+        final var optimisticStamp = stampedLock.tryOptimisticRead();
+        if (optimisticStamp != 0) {
+            try {
+                if (!predicate.test(state) && stampedLock.validate(optimisticStamp)) {
+                    return false;
+                }
+            } catch (RuntimeException e) {
+                if (stampedLock.validate(optimisticStamp)) {
+                    throw e;
+                }
+            }
+        }
+        var stamp = stampedLock.readLock();
+        try {
+            while (predicate.test(state)) {
+                final var writeStamp = stampedLock.tryConvertToWriteLock(stamp);
+                if (writeStamp != 0) {
+                    // 升级成功，当前线程持有写锁
+                    stamp = writeStamp;
+                    mutator.accept(state);
+                    return true;
+                }
+                // 升级失败，释放读锁后获取写锁，期间状态可能被其他线程修改，需要重新判断条件
+                stampedLock.unlockRead(stamp);
+                stamp = stampedLock.writeLock();
+            }
+            return false;
+        } finally {
+            // stamp可能是读锁也可能是写锁，unlock()会根据stamp自动判断
+            stampedLock.unlock(stamp);
+        }
+    }
+}
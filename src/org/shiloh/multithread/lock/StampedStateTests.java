@@ -0,0 +1,52 @@
+package org.shiloh.multithread.lock;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 15:35
+ * @description 使用{@link StampedState}重新实现{@link Point}
+ * 读取距离时不再手写tryOptimisticRead()/validate()/readLock()，
+ * 并演示了“距离原点超过10时才移回原点”这种if-then-update的写法
+ */
+public class StampedStateTests {
+
+    public static void main(String[] args) throws InterruptedException {
+        final var position = new StampedState<>(new Position());
+        final var writer = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                position.write(p -> {
+                    p.x += 1;
+                    p.y += 1;
+                });
+                // 超出范围时移回原点
+                position.updateIf(p -> p.distanceFromOrigin() > 10, p -> {
+                    p.x = 0;
+                    p.y = 0;
+                });
+            }
+        });
+        final var reader = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                final var distance = position.readDouble(Position::distanceFromOrigin);
+                if (distance > 10 + Math.sqrt(2)) {
+                    System.out.println("unexpected distance: " + distance);
+                }
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+        System.out.println("distance = " + position.readDouble(Position::distanceFromOrigin));
+    }
+}
+
+class Position {
+
+    double x;
+
+    double y;
+
+    double distanceFromOrigin() {
+        return Math.sqrt(x * x + y * y);
+    }
+}
@@ -7,6 +7,8 @@ import static org.shiloh.multithread.lock.deadlock.DeadLockTest.LOCK02;
  * @author lxlei
  * @date 2021/1/26 14:31
  * @description 死锁
+ * @see LockOrderChecker 在死锁发生之前发现加锁顺序不一致
+ * @see DeadlockWatchdog 死锁发生后输出相关线程的调用栈
  */
 public class DeadLockTest {
 
@@ -0,0 +1,124 @@
+package org.shiloh.multithread.lock.deadlock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 14:50
+ * @description 死锁看门狗：后台线程定期调用{@link ThreadMXBean#findDeadlockedThreads()}，发现死锁时输出相关线程的完整调用栈
+ * {@link LockOrderChecker}在死锁发生之前报告“可能”的死锁，但只覆盖经过{@link OrderedLock}、{@link OrderedMonitor}的加锁；
+ * 看门狗覆盖所有synchronized和{@link java.util.concurrent.locks.AbstractOwnableSynchronizer}实现的锁（ReentrantLock、ReentrantReadWriteLock），
+ * 但只能在死锁已经发生之后发现，两者配合使用。
+ * <p>
+ * 死锁一旦发生就无法解除，看门狗能做的只是把现场输出出来：每个线程在等待哪个锁、这个锁被谁持有、各自持有了哪些锁，
+ * 同一组死锁线程只报告一次。{@link ThreadInfo#toString()}最多只输出8层调用栈，这里自己拼接完整的调用栈。
+ * findDeadlockedThreads()需要在安全点遍历所有线程，检查间隔不宜太短，默认每5秒一次
+ */
+public class DeadlockWatchdog implements AutoCloseable {
+
+    private static final long DEFAULT_INTERVAL_SECONDS = 5;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private final Consumer<String> reporter;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * 已经报告过的死锁线程id
+     */
+    private final Set<Long> reported = new HashSet<>();
+
+    public DeadlockWatchdog() {
+        this(DEFAULT_INTERVAL_SECONDS, TimeUnit.SECONDS, System.err::println);
+    }
+
+    /**
+     * @param interval 检查间隔
+     * @param reporter 接收死锁报告，在看门狗线程中调用
+     */
+    public DeadlockWatchdog(long interval, TimeUnit unit, Consumer<String> reporter) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        this.reporter = reporter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            final var thread = new Thread(r, "deadlock-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::check, interval, interval, unit);
+    }
+
+    /**
+     * 立即检查一次
+     *
+     * @return 新发现的死锁报告，没有新的死锁时返回null
+     * @author shiloh
+     * @date 2026/10/19 14:58
+     */
+    public synchronized String check() {
+        final var ids = threadMXBean.findDeadlockedThreads();
+        if (ids == null) {
+            return null;
+        }
+        final var fresh = Arrays.stream(ids).filter(id -> !reported.contains(id)).toArray();
+        if (fresh.length == 0) {
+            return null;
+        }
+        Arrays.stream(fresh).forEach(reported::add);
+        final var report = format(threadMXBean.getThreadInfo(ids, true, true));
+        reporter.accept(report);
+        return report;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private static String format(ThreadInfo[] infos) {
+        final var separator = System.lineSeparator();
+        final var builder = new StringBuilder("deadlock detected, ").append(infos.length).append(" threads:")
+                .append(separator);
+        for (final var info : infos) {
+            if (info == null) {
+                // 线程在两次调用之间结束了
+                continue;
+            }
+            builder.append('"').append(info.getThreadName()).append("\" id=").append(info.getThreadId())
+                    .append(' ').append(info.getThreadState())
+                    .append(" waiting for ").append(info.getLockName())
+                    .append(" owned by \"").append(info.getLockOwnerName()).append("\" id=")
+                    .append(info.getLockOwnerId())
+                    .append(separator);
+            final var stack = info.getStackTrace();
+            final var monitors = info.getLockedMonitors();
+            for (int depth = 0; depth < stack.length; depth++) {
+                builder.append("        at ").append(stack[depth]).append(separator);
+                for (final var monitor : monitors) {
+                    if (monitor.getLockedStackDepth() == depth) {
+                        builder.append("        - locked ").append(monitor).append(separator);
+                    }
+                }
+            }
+            final var synchronizers = info.getLockedSynchronizers();
+            if (synchronizers.length > 0) {
+                builder.append("    locked synchronizers:").append(separator);
+                for (final var synchronizer : synchronizers) {
+                    builder.append("        - ").append(synchronizer).append(separator);
+                }
+            }
+        }
+        return builder.toString();
+    }
+}
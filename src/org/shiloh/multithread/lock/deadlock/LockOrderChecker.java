@@ -0,0 +1,212 @@
+package org.shiloh.multithread.lock.deadlock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 14:10
+ * @description 锁顺序检查器，在死锁真正发生之前发现“加锁顺序不一致”的问题
+ * {@link DeadLockTest}中的Calculator，add()先获取LOCK01再获取LOCK02，dec()的顺序正好相反，
+ * 只有两个线程恰好交错执行时才会死锁，测试环境中很可能一直碰不到，上线后某一天突然卡死。
+ * <p>
+ * 检查思路与Linux内核的lockdep一致：把每一次“持有锁A时去获取锁B”记录为有向图中的一条边A -> B，
+ * 只要图中出现了环（例如A -> B和B -> A），就说明存在某种线程交错会导致死锁，
+ * 即使这两条边是同一个线程在不同时刻记录的、当前并没有发生死锁，也会立即报告。
+ * <p>
+ * 1.图中的节点是锁的名称而不是锁实例，名称相同的锁视为同一类锁，这样图的大小只与锁的种类有关，
+ * 例如每个账户一把锁，都命名为“account”，图中只有一个节点。代价是同一类锁之间的嵌套（例如转账时同时锁两个账户）无法检查，
+ * 这种情况需要按固定顺序加锁；
+ * 2.只有可能无限阻塞的lock()、lockInterruptibly()会记录边，tryLock()不会因为等待而死锁，获取成功后只记为已持有；
+ * 3.重入当前线程已经持有的锁实例不会阻塞，不记录边，否则A.lock(); B.lock(); A.lock();会误报B -> A -> B的环。
+ * 重入按锁实例判断，而不是按名称：持有一个“account”时再获取另一个“account”不是重入；
+ * 4.每条边只在第一次出现时检查环并记录当时的调用栈，之后再走到同样的顺序只需要一次ConcurrentHashMap查询；
+ * 5.检查默认关闭，通过JVM参数-Dshiloh.lock.order.check=true开启。{@link #ENABLED}是static final常量，
+ * 关闭时{@link OrderedLock}、{@link OrderedMonitor}中的检查代码会被JIT当成死代码消除，开销只剩一次委托调用。
+ */
+public final class LockOrderChecker {
+
+    /**
+     * 是否开启检查，在类初始化时读取一次，运行期间不能修改
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("shiloh.lock.order.check");
+
+    /**
+     * 锁名称 -> 图中的节点
+     */
+    private static final Map<String, LockNode> NODES = new ConcurrentHashMap<>();
+
+    /**
+     * 当前线程持有的锁，按获取顺序排列，同一个锁重入时会出现多次
+     */
+    private static final ThreadLocal<List<Hold>> HELD = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * 新增边和检查环时加锁，保证两个线程同时加入A -> B和B -> A时至少有一个能发现环
+     */
+    private static final Object GRAPH_LOCK = new Object();
+
+    private static volatile Consumer<LockOrderViolation> violationHandler = LockOrderChecker::printViolation;
+
+    private LockOrderChecker() {
+    }
+
+    /**
+     * 设置发现环时的处理方式，默认打印到System.err。
+     * handler抛出的异常会从lock()中抛出，并且此时还没有获取锁，测试中可以借此让违反顺序的代码直接失败
+     *
+     * @author shiloh
+     * @date 2026/10/19 14:18
+     */
+    public static void setViolationHandler(Consumer<LockOrderViolation> handler) {
+        violationHandler = handler == null ? LockOrderChecker::printViolation : handler;
+    }
+
+    /**
+     * 清空已记录的锁顺序，只能在没有线程持有被检查的锁时调用，一般用于测试之间的隔离
+     *
+     * @author shiloh
+     * @date 2026/10/19 14:20
+     */
+    public static void reset() {
+        synchronized (GRAPH_LOCK) {
+            NODES.values().forEach(node -> node.successors.clear());
+        }
+    }
+
+    static LockNode node(String name) {
+        return NODES.computeIfAbsent(name, LockNode::new);
+    }
+
+    /**
+     * 即将以可能阻塞的方式获取锁，记录当前持有的每个锁到它的边，当前线程已经持有同一个锁实例时是重入，不记录
+     *
+     * @param lock 实际被获取的锁实例，用于判断重入
+     */
+    static void beforeAcquire(LockNode node, Object lock) {
+        final var held = HELD.get();
+        final var size = held.size();
+        for (int i = 0; i < size; i++) {
+            if (held.get(i).lock == lock) {
+                return;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            final var holder = held.get(i).node;
+            if (holder != node && !holder.successors.containsKey(node)) {
+                addEdge(holder, node);
+            }
+        }
+    }
+
+    static void afterAcquire(LockNode node, Object lock) {
+        HELD.get().add(new Hold(node, lock));
+    }
+
+    /**
+     * 释放锁时从后往前找，允许不按获取的逆序释放
+     */
+    static void afterRelease(Object lock) {
+        final var held = HELD.get();
+        for (int i = held.size() - 1; i >= 0; i--) {
+            if (held.get(i).lock == lock) {
+                held.remove(i);
+                return;
+            }
+        }
+    }
+
+    private static void addEdge(LockNode from, LockNode to) {
+        final LockOrderViolation violation;
+        synchronized (GRAPH_LOCK) {
+            if (from.successors.containsKey(to)) {
+                return;
+            }
+            final var stack = new Throwable().getStackTrace();
+            // 加入from -> to之前，如果已经能从to走到from，加入后就形成了环
+            final var path = findPath(to, from);
+            from.successors.put(to, stack);
+            if (path == null) {
+                return;
+            }
+            violation = new LockOrderViolation(from, to, stack, path);
+        }
+        // 在图锁之外回调，handler可能很慢，也可能抛出异常
+        violationHandler.accept(violation);
+    }
+
+    /**
+     * 广度优先搜索from到to的路径，找不到时返回null
+     */
+    private static List<LockNode> findPath(LockNode from, LockNode to) {
+        final var parents = new HashMap<LockNode, LockNode>();
+        final var visited = new HashSet<LockNode>();
+        final var queue = new ArrayDeque<LockNode>();
+        visited.add(from);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            final var current = queue.poll();
+            if (current == to) {
+                final var path = new ArrayList<LockNode>();
+                for (var node = to; node != null; node = parents.get(node)) {
+                    path.add(0, node);
+                }
+                return path;
+            }
+            for (final var next : current.successors.keySet()) {
+                if (visited.add(next)) {
+                    parents.put(next, current);
+                    queue.add(next);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void printViolation(LockOrderViolation violation) {
+        System.err.println(violation.describe());
+    }
+
+    /**
+     * 线程持有的一个锁：所属的节点和锁实例
+     */
+    private static final class Hold {
+
+        final LockNode node;
+
+        final Object lock;
+
+        Hold(LockNode node, Object lock) {
+            this.node = node;
+            this.lock = lock;
+        }
+    }
+
+    /**
+     * 图中的一个节点，代表一类锁
+     */
+    static final class LockNode {
+
+        final String name;
+
+        /**
+         * 持有当前锁时获取过的锁 -> 第一次记录这条边时的调用栈
+         */
+        final Map<LockNode, StackTraceElement[]> successors = new ConcurrentHashMap<>();
+
+        LockNode(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
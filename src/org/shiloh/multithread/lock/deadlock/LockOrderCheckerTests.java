@@ -0,0 +1,139 @@
+package org.shiloh.multithread.lock.deadlock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 15:05
+ * @description 锁顺序检查与死锁看门狗示例
+ * 1.把{@link DeadLockTest}中Calculator的两个synchronized改写成{@link OrderedMonitor}，在同一个线程中先后调用add()和dec()，
+ * 这样并不会死锁，但检查器在dec()获取LOCK01时就能报告LOCK02 -> LOCK01 -> LOCK02的环；
+ * 2.让两个线程同时执行与Calculator加锁顺序相同的{@link DeadlockingCalculator}真正陷入死锁，
+ * 由{@link DeadlockWatchdog}输出两个线程的调用栈；
+ * 3.A.lock(); B.lock(); A.lock();重入已经持有的A不会阻塞，不应该报告B -> A -> B的环。
+ * 死锁的线程无法结束，这里把它们设为守护线程，main方法结束后JVM可以正常退出
+ */
+public class LockOrderCheckerTests {
+
+    public static void main(String[] args) throws InterruptedException, IOException, ClassNotFoundException {
+        // 必须在LockOrderChecker类初始化之前设置，实际使用时通过JVM参数-Dshiloh.lock.order.check=true开启
+        System.setProperty("shiloh.lock.order.check", "true");
+        System.out.println("LockOrderChecker.ENABLED = " + LockOrderChecker.ENABLED);
+
+        final var violations = new ArrayList<LockOrderViolation>();
+        LockOrderChecker.setViolationHandler(violation -> {
+            violations.add(violation);
+            System.out.println(violation.describe());
+        });
+        final var calculator = new CheckedCalculator();
+        calculator.add(1);
+        calculator.dec(1);
+        // 已经报告过的环不会重复报告
+        calculator.dec(1);
+        System.out.println("violations = " + violations.size() + ", cycle = " + violations.get(0).getCycle());
+        // 序列化后图节点丢失，describe()只输出环和本次加锁的调用栈
+        System.out.println(copy(violations.get(0)).describe());
+
+        final var lockA = new OrderedLock("A");
+        final var lockB = new OrderedLock("B");
+        lockA.lock();
+        lockB.lock();
+        lockA.lock();
+        lockA.unlock();
+        lockB.unlock();
+        lockA.unlock();
+        System.out.println("after reentrant A -> B -> A, violations = " + violations.size() + "（预期1）");
+
+        final var detected = new CountDownLatch(1);
+        try (final var watchdog = new DeadlockWatchdog(200, TimeUnit.MILLISECONDS, report -> {
+            System.out.println(report);
+            detected.countDown();
+        })) {
+            final var deadlocked = new DeadlockingCalculator();
+            final var thread01 = new Thread(() -> deadlocked.add(1), "calculator-add");
+            final var thread02 = new Thread(() -> deadlocked.dec(1), "calculator-dec");
+            thread01.setDaemon(true);
+            thread02.setDaemon(true);
+            thread01.start();
+            thread02.start();
+            System.out.println("deadlock detected: " + detected.await(10, TimeUnit.SECONDS));
+            // 同一组线程不会重复报告
+            System.out.println("check again: " + watchdog.check());
+        }
+    }
+
+    private static LockOrderViolation copy(LockOrderViolation violation) throws IOException, ClassNotFoundException {
+        final var bytes = new ByteArrayOutputStream();
+        try (final var output = new ObjectOutputStream(bytes)) {
+            output.writeObject(violation);
+        }
+        try (final var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (LockOrderViolation) input.readObject();
+        }
+    }
+
+    /**
+     * 与{@link DeadLockTest}中的Calculator相同：add()先锁LOCK01再锁LOCK02，dec()顺序相反，中间睡眠1秒
+     */
+    private static class DeadlockingCalculator {
+
+        private int value;
+
+        private int another;
+
+        public void add(int val) {
+            synchronized (DeadLockTest.LOCK01) {
+                this.value += val;
+                DeadLockTest.sleep1s();
+                synchronized (DeadLockTest.LOCK02) {
+                    this.another += val;
+                }
+            }
+        }
+
+        public void dec(int val) {
+            synchronized (DeadLockTest.LOCK02) {
+                this.another -= val;
+                DeadLockTest.sleep1s();
+                synchronized (DeadLockTest.LOCK01) {
+                    this.value -= val;
+                }
+            }
+        }
+    }
+}
+
+/**
+ * 与{@link DeadLockTest}中Calculator的加锁顺序相同，只是去掉了睡眠，并改用{@link OrderedMonitor}加锁
+ */
+class CheckedCalculator {
+
+    private static final OrderedMonitor LOCK01 = new OrderedMonitor("LOCK01", DeadLockTest.LOCK01);
+
+    private static final OrderedMonitor LOCK02 = new OrderedMonitor("LOCK02", DeadLockTest.LOCK02);
+
+    private int value;
+
+    private int another;
+
+    public void add(int val) {
+        LOCK01.run(() -> {
+            this.value += val;
+            LOCK02.run(() -> this.another += val);
+        });
+    }
+
+    public void dec(int val) {
+        LOCK02.run(() -> {
+            this.another -= val;
+            LOCK01.run(() -> this.value -= val);
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package org.shiloh.multithread.lock.deadlock;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 14:25
+ * @description 锁顺序冲突：刚刚记录的加锁顺序与已有的顺序构成了环，存在死锁的可能
+ * 继承{@link IllegalStateException}，{@link LockOrderChecker#setViolationHandler}中可以直接把它抛出
+ */
+public class LockOrderViolation extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> cycle;
+
+    /**
+     * 以下两个字段引用检查器内部的图节点，不参与序列化，反序列化后为null
+     */
+
+    private final transient LockOrderChecker.LockNode from;
+
+    private final transient List<LockOrderChecker.LockNode> path;
+
+    LockOrderViolation(LockOrderChecker.LockNode from, LockOrderChecker.LockNode to, StackTraceElement[] stack,
+                       List<LockOrderChecker.LockNode> path) {
+        super("lock order cycle: " + from + " -> " + path.stream()
+                .map(node -> node.name)
+                .collect(Collectors.joining(" -> ")));
+        this.from = from;
+        this.path = path;
+        this.cycle = path.stream().map(node -> node.name).collect(Collectors.toUnmodifiableList());
+        setStackTrace(stack);
+    }
+
+    /**
+     * 环上的锁名称，第一个是本次获取的锁，最后一个是本次获取时已持有的锁，例如[LOCK02, LOCK01]
+     */
+    public List<String> getCycle() {
+        return cycle;
+    }
+
+    /**
+     * 详细描述：环上每条边第一次出现时的调用栈，对照这些位置就能找到顺序相反的代码。
+     * 反序列化得到的实例已经没有图节点，只能给出环和本次加锁的调用栈
+     *
+     * @author shiloh
+     * @date 2026/10/19 14:30
+     */
+    public String describe() {
+        if (from == null || path == null) {
+            final var builder = new StringBuilder(getMessage())
+                    .append(System.lineSeparator())
+                    .append("  acquired at:")
+                    .append(System.lineSeparator());
+            appendStack(builder, getStackTrace());
+            return builder.toString();
+        }
+        final var builder = new StringBuilder(getMessage())
+                .append(System.lineSeparator())
+                .append("  ").append(from).append(" -> ").append(path.get(0)).append(" acquired at:")
+                .append(System.lineSeparator());
+        appendStack(builder, getStackTrace());
+        for (int i = 0; i + 1 < path.size(); i++) {
+            final var node = path.get(i);
+            final var next = path.get(i + 1);
+            builder.append("  ").append(node).append(" -> ").append(next).append(" first acquired at:")
+                    .append(System.lineSeparator());
+            appendStack(builder, node.successors.get(next));
+        }
+        return builder.toString();
+    }
+
+    private static void appendStack(StringBuilder builder, StackTraceElement[] stack) {
+        if (stack == null) {
+            return;
+        }
+        for (final var element : stack) {
+            // 跳过检查器自身的栈帧，只保留业务代码
+            if (element.getClassName().startsWith(LockOrderChecker.class.getName())
+                    || element.getClassName().startsWith(OrderedLock.class.getName())
+                    || element.getClassName().startsWith(OrderedMonitor.class.getName())) {
+                continue;
+            }
+            builder.append("        at ").append(element).append(System.lineSeparator());
+        }
+    }
+}
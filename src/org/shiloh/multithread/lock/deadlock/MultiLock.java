@@ -0,0 +1,328 @@
+package org.shiloh.multithread.lock.deadlock;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 15:30
+ * @description 同时获取多个锁，并且不会死锁
+ * {@link DeadLockTest}中Calculator的add()和dec()以相反的顺序嵌套synchronized，两个线程交错执行时互相等待对方持有的锁。
+ * MultiLock把一组锁当成一个{@link Lock}来使用，lock()返回时所有锁都已获取，unlock()按获取的逆序全部释放：
+ * <pre>
+ * final var both = MultiLock.ordered(lock01, lock02);
+ * both.lock();
+ * try {
+ *     ...
+ * } finally {
+ *     both.unlock();
+ * }
+ * </pre>
+ * 提供两种获取策略，无论调用方以什么顺序传入锁都不会死锁：
+ * <p>
+ * 1.{@link Strategy#ORDERED}：按全局统一的顺序依次获取。死锁的必要条件之一是循环等待，所有线程都按同一顺序加锁就不会形成环。
+ * 全局顺序使用{@link System#identityHashCode(Object)}，两个不同的锁哈希值相同时，先获取全局的{@link #TIE_LOCK}
+ * 再获取它们，保证同一时刻只有一个线程在以“不确定的顺序”加锁（与《Java并发编程实战》中转账示例的做法一致），
+ * 不同的是这里所有锁获取完成后立即释放TIE_LOCK，不会在执行业务代码期间阻塞其他哈希冲突的线程；
+ * <p>
+ * 2.{@link Strategy#BACKOFF}：阻塞获取其中一个锁，其余的用tryLock()尝试，任何一个失败就全部释放，随机退避一段时间后，
+ * 下一轮改为阻塞在刚才失败的那个锁上。线程阻塞时不持有任何其他锁，破坏了“持有并等待”条件，因此不会死锁；
+ * 退避时间在[0, 2^n)微秒中随机选取，n随失败次数增加直到上限，避免几个线程步调一致地反复冲突（活锁）。
+ * 适合锁的集合在运行时才确定、或者调用方无法保证所有锁都参与排序的场景，代价是冲突时会重复加锁解锁。
+ * <p>
+ * 与{@link LockOrderChecker}（{@link OrderedLock}）一起使用时：
+ * BACKOFF阻塞时不持有任何其他锁，只会记录已持有的锁，不会产生误报；
+ * ORDERED按identityHashCode排序，而检查器按锁的名称建图，两者的顺序没有关系。
+ * 同一组名称的锁在不同实例之间的哈希顺序可能相反，例如多次创建名为“account”“ledger”的两把锁，
+ * 有时先锁account、有时先锁ledger，检查器会报告ledger -> account -> ledger。
+ * 因此需要检查的锁应使用BACKOFF，或者保证名称的顺序与获取顺序一致（例如固定用同一对实例）。
+ * 对于synchronized，可以使用{@link #synchronizedAll(Runnable, Object...)}按同样的全局顺序嵌套获取多个监视器锁
+ */
+public class MultiLock implements Lock {
+
+    public enum Strategy {
+        /**
+         * 按全局统一的顺序获取
+         */
+        ORDERED,
+        /**
+         * tryLock失败时全部释放并随机指数退避
+         */
+        BACKOFF
+    }
+
+    /**
+     * 哈希值相同的锁之间没有确定的顺序，先获取这个锁再获取它们
+     */
+    private static final Lock TIE_LOCK = new ReentrantLock();
+
+    private static final Object TIE_MONITOR = new Object();
+
+    /**
+     * 退避时间上限：2^10微秒，约1毫秒
+     */
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    private final Lock[] locks;
+
+    private final Strategy strategy;
+
+    /**
+     * ORDERED策略下是否存在哈希值相同的锁
+     */
+    private final boolean tie;
+
+    public MultiLock(Strategy strategy, Lock... locks) {
+        if (locks.length == 0) {
+            throw new IllegalArgumentException("locks must not be empty");
+        }
+        this.strategy = strategy;
+        this.locks = distinct(locks, strategy == Strategy.ORDERED);
+        this.tie = strategy == Strategy.ORDERED && hasTie(this.locks);
+    }
+
+    public static MultiLock ordered(Lock... locks) {
+        return new MultiLock(Strategy.ORDERED, locks);
+    }
+
+    public static MultiLock backoff(Lock... locks) {
+        return new MultiLock(Strategy.BACKOFF, locks);
+    }
+
+    @Override
+    public void lock() {
+        if (strategy == Strategy.ORDERED) {
+            if (!tie) {
+                lockAll();
+                return;
+            }
+            // 所有锁都获取之后就可以释放TIE_LOCK，之后其他线程再获取这组锁时只会等待，不会与当前线程形成环
+            TIE_LOCK.lock();
+            try {
+                lockAll();
+            } finally {
+                TIE_LOCK.unlock();
+            }
+            return;
+        }
+        var first = 0;
+        var attempt = 0;
+        while (true) {
+            locks[first].lock();
+            final var failed = tryLockOthers(first);
+            if (failed < 0) {
+                return;
+            }
+            backoff(attempt++);
+            first = failed;
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (strategy == Strategy.ORDERED) {
+            if (!tie) {
+                lockAllInterruptibly();
+                return;
+            }
+            TIE_LOCK.lockInterruptibly();
+            try {
+                lockAllInterruptibly();
+            } finally {
+                TIE_LOCK.unlock();
+            }
+            return;
+        }
+        var first = 0;
+        var attempt = 0;
+        while (true) {
+            locks[first].lockInterruptibly();
+            final var failed = tryLockOthers(first);
+            if (failed < 0) {
+                return;
+            }
+            backoff(attempt++);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            first = failed;
+        }
+    }
+
+    /**
+     * 不阻塞地尝试一次，任何一个锁获取失败都会释放已经获取的锁并返回false
+     */
+    @Override
+    public boolean tryLock() {
+        for (int i = 0; i < locks.length; i++) {
+            if (!locks[i].tryLock()) {
+                release(i);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在指定时间内按BACKOFF策略反复尝试，由于超时后会放弃，ORDERED策略也使用这种方式
+     */
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        final var deadline = System.nanoTime() + unit.toNanos(time);
+        var first = 0;
+        var attempt = 0;
+        while (true) {
+            final var remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !locks[first].tryLock(remaining, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+            final var failed = tryLockOthers(first);
+            if (failed < 0) {
+                return true;
+            }
+            backoff(attempt++);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            first = failed;
+        }
+    }
+
+    @Override
+    public void unlock() {
+        release(locks.length);
+    }
+
+    /**
+     * 多个锁无法共享一个Condition
+     */
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("MultiLock does not support conditions");
+    }
+
+    /**
+     * 按全局统一的顺序嵌套获取多个对象的监视器锁后执行action，等价于以固定顺序书写的嵌套synchronized块
+     *
+     * @author shiloh
+     * @date 2026/10/19 15:45
+     */
+    public static void synchronizedAll(Runnable action, Object... monitors) {
+        final var sorted = distinct(monitors, true);
+        if (sorted.length == 2 && !hasTie(sorted)) {
+            // 最常见的两个锁的情况，省去递归
+            synchronized (sorted[0]) {
+                synchronized (sorted[1]) {
+                    action.run();
+                }
+            }
+        } else if (hasTie(sorted)) {
+            synchronized (TIE_MONITOR) {
+                synchronizedFrom(sorted, 0, action);
+            }
+        } else {
+            synchronizedFrom(sorted, 0, action);
+        }
+    }
+
+    private static void synchronizedFrom(Object[] monitors, int index, Runnable action) {
+        if (index == monitors.length) {
+            action.run();
+            return;
+        }
+        synchronized (monitors[index]) {
+            synchronizedFrom(monitors, index + 1, action);
+        }
+    }
+
+    /**
+     * 已持有locks[first]，依次tryLock其余的锁
+     *
+     * @return 全部获取成功时返回-1，否则释放所有已获取的锁并返回失败的下标
+     */
+    private int tryLockOthers(int first) {
+        for (int i = 0; i < locks.length; i++) {
+            if (i != first && !locks[i].tryLock()) {
+                for (int j = 0; j < i; j++) {
+                    if (j != first) {
+                        locks[j].unlock();
+                    }
+                }
+                locks[first].unlock();
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void lockAll() {
+        for (final var lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void lockAllInterruptibly() throws InterruptedException {
+        for (int i = 0; i < locks.length; i++) {
+            try {
+                locks[i].lockInterruptibly();
+            } catch (InterruptedException e) {
+                release(i);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 按获取的逆序释放前count个锁
+     */
+    private void release(int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    private static void backoff(int attempt) {
+        final var bound = 1L << Math.min(attempt, MAX_BACKOFF_SHIFT);
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(bound) * 1000);
+    }
+
+    /**
+     * 去掉重复的元素，sort为true时按identityHashCode升序排列。
+     * 每次加锁前都可能调用，锁的数量通常只有两三个，这里用插入排序和两两比较代替Stream和Arrays.sort()
+     */
+    private static <T> T[] distinct(T[] items, boolean sort) {
+        final var result = items.clone();
+        var size = 0;
+        outer:
+        for (final var item : items) {
+            for (int i = 0; i < size; i++) {
+                if (result[i] == item) {
+                    continue outer;
+                }
+            }
+            var i = size++;
+            if (sort) {
+                final var hash = System.identityHashCode(item);
+                for (; i > 0 && System.identityHashCode(result[i - 1]) > hash; i--) {
+                    result[i] = result[i - 1];
+                }
+            }
+            result[i] = item;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static boolean hasTie(Object[] sorted) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (System.identityHashCode(sorted[i]) == System.identityHashCode(sorted[i - 1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,103 @@
+package org.shiloh.multithread.lock.deadlock;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 15:50
+ * @description {@link MultiLock}示例
+ * 与{@link DeadLockTest}一样，一个线程先LOCK01后LOCK02，另一个线程先LOCK02后LOCK01，各执行10万次，
+ * 直接嵌套加锁几乎必然死锁，改用MultiLock后两种策略都能正常结束，并且两个计数器的结果都为0
+ */
+public class MultiLockTests {
+
+    private static final int LOOP = 100_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        for (final var strategy : MultiLock.Strategy.values()) {
+            final var lock01 = new ReentrantLock();
+            final var lock02 = new ReentrantLock();
+            final var calculator = new SafeCalculator(
+                    new MultiLock(strategy, lock01, lock02),
+                    new MultiLock(strategy, lock02, lock01)
+            );
+            final var start = System.currentTimeMillis();
+            run(() -> calculator.add(1), () -> calculator.dec(1));
+            System.out.printf("%s: value = %d, another = %d, 耗时 %dms%n", strategy, calculator.value,
+                    calculator.another, System.currentTimeMillis() - start);
+        }
+
+        // synchronized版本：参数顺序相反，但实际都按全局顺序获取监视器锁
+        final var counts = new int[2];
+        final var start = System.currentTimeMillis();
+        run(
+                () -> MultiLock.synchronizedAll(() -> {
+                    counts[0]++;
+                    counts[1]++;
+                }, DeadLockTest.LOCK01, DeadLockTest.LOCK02),
+                () -> MultiLock.synchronizedAll(() -> {
+                    counts[0]--;
+                    counts[1]--;
+                }, DeadLockTest.LOCK02, DeadLockTest.LOCK01)
+        );
+        System.out.printf("synchronizedAll: value = %d, another = %d, 耗时 %dms%n", counts[0], counts[1],
+                System.currentTimeMillis() - start);
+    }
+
+    private static void run(Runnable add, Runnable dec) throws InterruptedException {
+        final var thread01 = new Thread(() -> {
+            for (int i = 0; i < LOOP; i++) {
+                add.run();
+            }
+        });
+        final var thread02 = new Thread(() -> {
+            for (int i = 0; i < LOOP; i++) {
+                dec.run();
+            }
+        });
+        thread01.start();
+        thread02.start();
+        thread01.join();
+        thread02.join();
+    }
+}
+
+/**
+ * {@link DeadLockTest}中Calculator的无死锁版本，add()和dec()传入MultiLock的锁顺序与原来一样是相反的
+ */
+class SafeCalculator {
+
+    private final Lock addLock;
+
+    private final Lock decLock;
+
+    int value;
+
+    int another;
+
+    SafeCalculator(Lock addLock, Lock decLock) {
+        this.addLock = addLock;
+        this.decLock = decLock;
+    }
+
+    public void add(int val) {
+        addLock.lock();
+        try {
+            this.value += val;
+            this.another += val;
+        } finally {
+            addLock.unlock();
+        }
+    }
+
+    public void dec(int val) {
+        decLock.lock();
+        try {
+            this.another -= val;
+            this.value -= val;
+        } finally {
+            decLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.shiloh.multithread.lock.deadlock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 14:35
+ * @description 带锁顺序检查的{@link Lock}，把加锁、解锁委托给真正的锁，并在前后通知{@link LockOrderChecker}
+ * 未开启检查时每个方法只是一次委托调用，可以直接替换代码中的ReentrantLock：
+ * <pre>
+ * private final Lock lock = new OrderedLock("order-service.cache");
+ * </pre>
+ * Condition直接使用被包装锁的Condition，await()期间锁虽然被暂时释放，但线程阻塞在await()上不会再去获取其他锁，
+ * 因此不需要从已持有列表中移除
+ */
+public class OrderedLock implements Lock {
+
+    private final Lock delegate;
+
+    private final LockOrderChecker.LockNode node;
+
+    public OrderedLock(String name) {
+        this(name, new ReentrantLock());
+    }
+
+    /**
+     * @param name     锁的名称，名称相同的锁在检查时视为同一类锁
+     * @param delegate 被包装的锁
+     */
+    public OrderedLock(String name, Lock delegate) {
+        this.delegate = delegate;
+        this.node = LockOrderChecker.ENABLED ? LockOrderChecker.node(name) : null;
+    }
+
+    @Override
+    public void lock() {
+        if (LockOrderChecker.ENABLED) {
+            LockOrderChecker.beforeAcquire(node, delegate);
+        }
+        delegate.lock();
+        if (LockOrderChecker.ENABLED) {
+            LockOrderChecker.afterAcquire(node, delegate);
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (LockOrderChecker.ENABLED) {
+            LockOrderChecker.beforeAcquire(node, delegate);
+        }
+        delegate.lockInterruptibly();
+        if (LockOrderChecker.ENABLED) {
+            LockOrderChecker.afterAcquire(node, delegate);
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        final var locked = delegate.tryLock();
+        if (LockOrderChecker.ENABLED && locked) {
+            LockOrderChecker.afterAcquire(node, delegate);
+        }
+        return locked;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        final var locked = delegate.tryLock(time, unit);
+        if (LockOrderChecker.ENABLED && locked) {
+            LockOrderChecker.afterAcquire(node, delegate);
+        }
+        return locked;
+    }
+
+    @Override
+    public void unlock() {
+        delegate.unlock();
+        if (LockOrderChecker.ENABLED) {
+            LockOrderChecker.afterRelease(delegate);
+        }
+    }
+
+    @Override
+    public Condition newCondition() {
+        return delegate.newCondition();
+    }
+}
@@ -0,0 +1,70 @@
+package org.shiloh.multithread.lock.deadlock;
+
+import java.util.function.Supplier;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 14:42
+ * @description 带锁顺序检查的synchronized，synchronized块无法被包装，只能改写成回调的形式：
+ * <pre>
+ * synchronized (LOCK01) { ... }
+ * // 改写为
+ * MONITOR01.run(() -> { ... });
+ * </pre>
+ * 内部仍然使用synchronized获取{@link #getMonitor()}的监视器锁，与其他直接synchronized同一个对象的代码互斥，
+ * 但只有经过OrderedMonitor的加锁才会被{@link LockOrderChecker}记录
+ */
+public class OrderedMonitor {
+
+    private final Object monitor;
+
+    private final LockOrderChecker.LockNode node;
+
+    public OrderedMonitor(String name) {
+        this(name, new Object());
+    }
+
+    public OrderedMonitor(String name, Object monitor) {
+        this.monitor = monitor;
+        this.node = LockOrderChecker.ENABLED ? LockOrderChecker.node(name) : null;
+    }
+
+    public Object getMonitor() {
+        return monitor;
+    }
+
+    public void run(Runnable action) {
+        if (LockOrderChecker.ENABLED) {
+            LockOrderChecker.beforeAcquire(node, monitor);
+        }
+        synchronized (monitor) {
+            if (!LockOrderChecker.ENABLED) {
+                action.run();
+                return;
+            }
+            LockOrderChecker.afterAcquire(node, monitor);
+            try {
+                action.run();
+            } finally {
+                LockOrderChecker.afterRelease(monitor);
+            }
+        }
+    }
+
+    public <T> T call(Supplier<T> action) {
+        if (LockOrderChecker.ENABLED) {
+            LockOrderChecker.beforeAcquire(node, monitor);
+        }
+        synchronized (monitor) {
+            if (!LockOrderChecker.ENABLED) {
+                return action.get();
+            }
+            LockOrderChecker.afterAcquire(node, monitor);
+            try {
+                return action.get();
+            } finally {
+                LockOrderChecker.afterRelease(monitor);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.shiloh.multithread.lock.readwritelock;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 15:50
+ * @description 无锁计数数组，替代{@link Counter}中“ReadWriteLock + int[10]”的写法
+ * {@link Counter}的读写都要经过同一个ReentrantReadWriteLock，即使全是读操作，
+ * 获取读锁时也要CAS修改锁内部的读计数，所有读线程仍然在争抢同一个缓存行。
+ * <p>
+ * AtomicCounterArray的每个计数槽位都是{@link AtomicLongArray}中的一个元素，写入只对所在槽位做一次原子加法，
+ * 不同槽位之间互不影响；读取时不加锁，快照有两种一致性可选（{@link Consistency}）：
+ * 1.{@link Consistency#EVENTUAL}：逐个读取槽位，只读1遍，开销最小，但各槽位的值可能来自不同时刻；
+ * 2.{@link Consistency#CONSISTENT}：连续读取2遍，2遍完全相同才返回，否则重试。
+ * 因为计数只增不减，某个槽位在2次读取之间如果值没有变化，就说明它在这段时间内一直没有被修改，
+ * 所以2遍相同时，得到的就是第1遍结束、第2遍开始的那一刻所有槽位的精确值。
+ * 写入非常频繁时一致性快照可能需要重试多次，数组越大越明显，持续写入时甚至可能永远等不到2遍相同。
+ * 因此乐观重试最多{@link #OPTIMISTIC_ATTEMPTS}次，之后退化为“关闸”模式：安装一个闸门（{@link #gate}），
+ * 新的写入在闸门前等待，已经越过闸门的写入（每个写线程最多1次）完成后槽位不再变化，下一次2遍读取必然相同。
+ * 写入时只多了一次volatile读，不需要额外的原子操作；只有关闸期间写线程才会被阻塞。
+ * <p>
+ * 开启填充（padded）后每个槽位独占128字节，相邻槽位被不同线程修改时不会发生伪共享，代价是内存占用变为16倍，
+ * 适合槽位数量不多、每个槽位都很热的场景。
+ */
+public class AtomicCounterArray {
+
+    /**
+     * 快照的一致性级别
+     */
+    public enum Consistency {
+        /**
+         * 最终一致：各槽位的值可能来自不同时刻
+         */
+        EVENTUAL,
+        /**
+         * 强一致：所有槽位的值来自同一时刻，可能需要重试
+         */
+        CONSISTENT
+    }
+
+    /**
+     * 开启填充时相邻槽位之间间隔的long数量
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * 一致性快照乐观重试的次数，超过后关闸
+     */
+    static final int OPTIMISTIC_ATTEMPTS = 8;
+
+    /**
+     * 一致性快照关闸期间不为null，写线程在上面等待
+     */
+    private volatile CountDownLatch gate;
+
+    /**
+     * 关闸的次数，用于观察乐观重试的效果
+     */
+    private volatile long gatedSnapshots;
+
+    private final AtomicLongArray counts;
+
+    private final int length;
+
+    private final int stride;
+
+    public AtomicCounterArray(int length) {
+        this(length, false);
+    }
+
+    /**
+     * @param length 槽位数量
+     * @param padded 是否为每个槽位填充到独占缓存行
+     */
+    public AtomicCounterArray(int length, boolean padded) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative: " + length);
+        }
+        this.length = length;
+        this.stride = padded ? PADDING : 1;
+        this.counts = new AtomicLongArray(Math.multiplyExact(length, stride));
+    }
+
+    public void increment(int index) {
+        add(index, 1);
+    }
+
+    /**
+     * @param delta 增加的数量，不能为负数，否则一致性快照无法判断槽位是否被修改过
+     */
+    public void add(int index, long delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("delta must not be negative: " + delta);
+        }
+        final var offset = offset(index);
+        if (gate != null) {
+            awaitGate();
+        }
+        counts.getAndAdd(offset, delta);
+    }
+
+    public long get(int index) {
+        return counts.get(offset(index));
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public long[] getCounts() {
+        return snapshot(Consistency.EVENTUAL);
+    }
+
+    public long[] snapshot(Consistency consistency) {
+        final var snapshot = collect(new long[length]);
+        if (consistency == Consistency.EVENTUAL) {
+            return snapshot;
+        }
+        final var current = new long[length];
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            if (compareAndSwap(snapshot, current)) {
+                return current;
+            }
+            Thread.onSpinWait();
+        }
+        return gatedSnapshot(snapshot, current);
+    }
+
+    /**
+     * 关闸次数，每次关闸都说明乐观重试全部失败
+     */
+    public long gatedSnapshots() {
+        return gatedSnapshots;
+    }
+
+    /**
+     * 关闸后重复读取直到2遍相同，多个线程同时关闸时依次进行
+     */
+    private synchronized long[] gatedSnapshot(long[] previous, long[] current) {
+        final var latch = new CountDownLatch(1);
+        gate = latch;
+        gatedSnapshots++;
+        try {
+            while (!compareAndSwap(previous, current)) {
+                Thread.onSpinWait();
+            }
+            return current;
+        } finally {
+            gate = null;
+            latch.countDown();
+        }
+    }
+
+    /**
+     * 读取一遍到current中并与previous比较，不相同时把这一遍的结果复制到previous，作为下一次比较的基准
+     */
+    private boolean compareAndSwap(long[] previous, long[] current) {
+        collect(current);
+        if (Arrays.equals(previous, current)) {
+            return true;
+        }
+        System.arraycopy(current, 0, previous, 0, length);
+        return false;
+    }
+
+    /**
+     * 等待关闸结束，等待期间被中断时不抛出异常，恢复中断标记后继续写入
+     */
+    private void awaitGate() {
+        var interrupted = false;
+        for (var latch = gate; latch != null; latch = gate) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long[] collect(long[] target) {
+        for (int i = 0; i < length; i++) {
+            target[i] = counts.get(i * stride);
+        }
+        return target;
+    }
+
+    private int offset(int index) {
+        return Objects.checkIndex(index, length) * stride;
+    }
+}
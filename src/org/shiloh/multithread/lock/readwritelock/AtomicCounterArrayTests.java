@@ -0,0 +1,91 @@
+package org.shiloh.multithread.lock.readwritelock;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 18:40
+ * @description 无锁计数器数组快照测试
+ */
+public class AtomicCounterArrayTests {
+
+    private static final int LENGTH = 10000;
+
+    private static final int HALF = LENGTH / 2;
+
+    private static final int WRITERS = 4;
+
+    /**
+     * 4个写线程持续写入一个10000个槽位的数组：每次随机选一个前半部分的槽位i，先对槽位i加1，再对槽位i + 5000加1。
+     * 任意时刻前半部分的总和 - 后半部分的总和都在[0, 写线程数]之间，一致性快照必须满足这个条件；
+     * EVENTUAL快照先读前半部分、后读后半部分，读到后半部分时前半部分又增加了，差值经常为负数。
+     * 多核机器上写入持续不停时乐观重试经常全部失败，gatedSnapshots大于0说明有快照是关闸后得到的，
+     * 无论哪种方式得到的一致性快照都满足条件。写线程停止后总数应为写入次数的2倍
+     *
+     * @author shiloh
+     * @date 2026/10/19 18:45
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final var counters = new AtomicCounterArray(LENGTH);
+        final var running = new AtomicBoolean(true);
+        final var written = new long[WRITERS];
+        final var threads = new ArrayList<Thread>();
+        for (int i = 0; i < WRITERS; i++) {
+            final var writer = i;
+            final var thread = new Thread(() -> {
+                final var random = ThreadLocalRandom.current();
+                var count = 0L;
+                while (running.get()) {
+                    final var index = random.nextInt(HALF);
+                    counters.increment(index);
+                    counters.increment(index + HALF);
+                    count++;
+                }
+                written[writer] = count;
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        var eventualViolations = 0;
+        var consistentViolations = 0;
+        final var rounds = 200;
+        final var start = System.currentTimeMillis();
+        for (int i = 0; i < rounds; i++) {
+            if (!isValid(counters.snapshot(AtomicCounterArray.Consistency.EVENTUAL))) {
+                eventualViolations++;
+            }
+            if (!isValid(counters.snapshot(AtomicCounterArray.Consistency.CONSISTENT))) {
+                consistentViolations++;
+            }
+        }
+        final var elapsed = System.currentTimeMillis() - start;
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        var expected = 0L;
+        for (long count : written) {
+            expected += 2 * count;
+        }
+        var actual = 0L;
+        for (long count : counters.snapshot(AtomicCounterArray.Consistency.CONSISTENT)) {
+            actual += count;
+        }
+        System.out.println("EVENTUAL快照违反条件的次数 = " + eventualViolations + "/" + rounds);
+        System.out.println("CONSISTENT快照违反条件的次数 = " + consistentViolations + "/" + rounds + "（预期为0）");
+        System.out.println("gatedSnapshots = " + counters.gatedSnapshots() + ", 耗时：" + elapsed + "ms");
+        System.out.println("expected = " + expected + ", actual = " + actual);
+    }
+
+    private static boolean isValid(long[] snapshot) {
+        var difference = 0L;
+        for (int i = 0; i < HALF; i++) {
+            difference += snapshot[i] - snapshot[i + HALF];
+        }
+        return difference >= 0 && difference <= WRITERS;
+    }
+}
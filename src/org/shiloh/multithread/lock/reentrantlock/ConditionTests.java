@@ -1,8 +1,11 @@
 package org.shiloh.multithread.lock.reentrantlock;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -34,8 +37,8 @@ public class ConditionTests {
             for (int i = 0; i < 10; i++) {
                 final var taskName = String.format("task-%s", Math.random());
                 System.out.println("add task " + taskName);
-                taskQueue.addTask(taskName);
                 try {
+                    taskQueue.addTask(taskName);
                     Thread.sleep(200);
                 } catch (InterruptedException e) {
                     e.printStackTrace();
@@ -46,9 +49,96 @@ public class ConditionTests {
         addTaskThread.join();
         Thread.sleep(1000);
         threads.forEach(Thread::interrupt);
+
+        batchTasks();
+    }
+
+    /**
+     * 容量为8的有界队列，1个生产者每次用addTasks()放入20个任务，共5批；
+     * 2个消费者分别用getTasks()等待并批量取出、用drainTo()不等待地批量取出，每批最多16个。
+     * 队列最多只能放8个任务，所以每批取出的任务不超过8个，生产者放不下时在notFull上等待。
+     * 2个消费者各取出多少取决于线程调度（单核时getTasks()经常全部取走），但合计一定是100个
+     *
+     * @author shiloh
+     * @date 2026/10/19 19:10
+     */
+    private static void batchTasks() throws InterruptedException {
+        final var taskQueue = new TaskQueue(8);
+        final var producer = new Thread(() -> {
+            for (int i = 0; i < 5; i++) {
+                final var batch = new ArrayList<String>();
+                for (int j = 0; j < 20; j++) {
+                    batch.add(String.format("batch-%d-task-%d", i, j));
+                }
+                try {
+                    taskQueue.addTasks(batch);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        final var taken = new int[2];
+        final var largestBatch = new int[2];
+        final var waitingConsumer = new Thread(() -> {
+            try {
+                while (true) {
+                    final var batch = taskQueue.getTasks(16, 500, TimeUnit.MILLISECONDS);
+                    if (batch.isEmpty()) {
+                        return;
+                    }
+                    taken[0] += batch.size();
+                    largestBatch[0] = Math.max(largestBatch[0], batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        final var drainingConsumer = new Thread(() -> {
+            final var batch = new ArrayList<String>();
+            while (true) {
+                batch.clear();
+                final var drained = taskQueue.drainTo(batch, 16);
+                if (drained > 0) {
+                    taken[1] += drained;
+                    largestBatch[1] = Math.max(largestBatch[1], drained);
+                } else if (!producer.isAlive()) {
+                    return;
+                }
+                // drainTo()不等待，没有任务时也不会阻塞，这里隔1ms取一次
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        producer.start();
+        waitingConsumer.start();
+        drainingConsumer.start();
+        producer.join();
+        waitingConsumer.join();
+        drainingConsumer.join();
+        System.out.println("getTasks取出 " + taken[0] + " 个，最大一批 " + largestBatch[0]
+                + "；drainTo取出 " + taken[1] + " 个，最大一批 " + largestBatch[1]
+                + "；合计 " + (taken[0] + taken[1]) + "（预期100）");
+
+        try {
+            taskQueue.getTasks(-1, 0, TimeUnit.MILLISECONDS);
+        } catch (IllegalArgumentException e) {
+            System.out.println("caught: " + e);
+        }
     }
 }
 
+/**
+ * 有界任务队列
+ * 队列满时放入任务的线程在{@link #notFull}上等待，队列空时取出任务的线程在{@link #notEmpty}上等待，
+ * 放入几个任务就signal()几个消费者，取出几个任务就signal()几个生产者，不会像signalAll()那样把所有线程都唤醒。
+ * <p>
+ * 当生产者一次性产生大量任务时，逐个调用{@link #addTask(String)}/{@link #getTask()}每个任务都要加锁、解锁一次，
+ * 此时可以使用{@link #addTasks(Collection)}、{@link #drainTo(Collection, int)}、{@link #getTasks(int, long, TimeUnit)}
+ * 在一次加锁中放入或取出多个任务。
+ */
 class TaskQueue {
 
     private final Lock lock = new ReentrantLock();
@@ -67,25 +157,75 @@ class TaskQueue {
      * } else {
      *     // 在指定时间内（这里是1秒）没有被其他线程唤醒
      * }
+     * <p>
+     * 同一个Lock可以创建多个Condition，这里用notEmpty表示“队列不为空”，消费者在上面等待
      */
-    private final Condition condition = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+
+    /**
+     * “队列未满”，生产者在上面等待
+     */
+    private final Condition notFull = lock.newCondition();
 
     private final Queue<String> tasks = new LinkedList<>();
 
-    public void addTask(String taskName) {
+    private final int capacity;
+
+    public TaskQueue() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public TaskQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public void addTask(String taskName) throws InterruptedException {
         // 加锁
         lock.lock();
         try {
+            // 队列已满时等待消费者取走任务
+            while (tasks.size() == capacity) {
+                this.notFull.await();
+            }
             // 添加任务到队列中
             this.tasks.add(taskName);
-            // 唤醒当前锁对象的所有线程
-            this.condition.signalAll();
+            // 只唤醒1个等待中的消费者
+            this.notEmpty.signal();
         } finally {
             // 释放锁
             lock.unlock();
         }
     }
 
+    /**
+     * 批量放入任务，队列放不下时先放入能放下的部分并唤醒消费者，再等待队列腾出空间
+     *
+     * @author shiloh
+     * @date 2026/10/18 12:30
+     */
+    public void addTasks(Collection<String> taskNames) throws InterruptedException {
+        final var iterator = taskNames.iterator();
+        lock.lock();
+        try {
+            while (iterator.hasNext()) {
+                while (tasks.size() == capacity) {
+                    this.notFull.await();
+                }
+                var added = 0;
+                while (iterator.hasNext() && tasks.size() < capacity) {
+                    this.tasks.add(iterator.next());
+                    added++;
+                }
+                signal(this.notEmpty, added);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public String getTask() throws InterruptedException {
         // 加锁
         lock.lock();
@@ -94,12 +234,88 @@ class TaskQueue {
             while (tasks.isEmpty()) {
                 // 如果没有任务则释放当前锁，并将线程设为等待状态
                 System.out.println("tasks is empty...");
-                this.condition.await();
+                this.notEmpty.await();
             }
-            return tasks.remove();
+            final var task = tasks.remove();
+            // 腾出了1个位置，唤醒1个等待中的生产者
+            this.notFull.signal();
+            return task;
         } finally {
             // 释放锁
             lock.unlock();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 一次加锁取出最多max个任务放入target中，不等待
+     *
+     * @return 实际取出的任务数量，队列为空时返回0
+     * @author shiloh
+     * @date 2026/10/18 12:36
+     */
+    public int drainTo(Collection<? super String> target, int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("max must not be negative: " + max);
+        }
+        lock.lock();
+        try {
+            return drain(target, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 等待至少1个任务到达，然后一次性取出最多max个任务
+     *
+     * @return 取出的任务，超时仍没有任务时返回空列表
+     * @author shiloh
+     * @date 2026/10/18 12:40
+     */
+    public List<String> getTasks(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        if (max <= 0) {
+            throw new IllegalArgumentException("max must be positive: " + max);
+        }
+        final var result = new ArrayList<String>(Math.min(max, 64));
+        var nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (tasks.isEmpty()) {
+                if (nanos <= 0) {
+                    return result;
+                }
+                nanos = this.notEmpty.awaitNanos(nanos);
+            }
+            drain(result, max);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 调用前必须已持有锁
+     */
+    private int drain(Collection<? super String> target, int max) {
+        var drained = 0;
+        while (drained < max && !tasks.isEmpty()) {
+            target.add(tasks.remove());
+            drained++;
+        }
+        signal(this.notFull, drained);
+        // 可能有多个消费者被唤醒，但任务被当前线程一次取完了，如果队列还有剩余，接力唤醒下一个消费者
+        if (!tasks.isEmpty()) {
+            this.notEmpty.signal();
+        }
+        return drained;
+    }
+
+    /**
+     * 唤醒最多count个等待线程，等待线程不足count个时多余的signal()不会产生任何效果
+     */
+    private static void signal(Condition condition, int count) {
+        for (int i = 0; i < count; i++) {
+            condition.signal();
+        }
+    }
+}
@@ -29,6 +29,12 @@ class Counter01 {
             this.count += val;
         }
     }
+
+    public int get() {
+        synchronized (this) {
+            return this.count;
+        }
+    }
 }
 
 /**
@@ -67,6 +73,15 @@ class Counter02 {
             lock.unlock();
         }
     }
+
+    public int get() {
+        lock.lock();
+        try {
+            return this.count;
+        } finally {
+            lock.unlock();
+        }
+    }
 }
 
 
@@ -16,6 +16,8 @@ package org.shiloh.multithread.syncmethod;
  * 但是，如果所有线程都只读取，不写入，那么ArrayList是可以安全地在线程间共享的。
  * <p>
  * tips: 没有特殊说明时，一个类默认是非线程安全的
+ *
+ * @see FlatCombiner 竞争激烈时由一个线程批量执行所有线程的修改
  */
 public class Counter {
 
@@ -0,0 +1,287 @@
+package org.shiloh.multithread.syncmethod;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 17:30
+ * @description 平铺合并（flat combining）：把任意非线程安全的数据结构包装成线程安全的
+ * {@link Counter}、ReentrantLock版的Counter02等写法中，每个线程都要自己获取锁、修改数据、释放锁。
+ * 竞争激烈时，大部分时间花在锁在线程之间的交接上：释放锁、唤醒下一个线程、数据所在的缓存行从一个CPU核搬到另一个CPU核，
+ * 真正修改数据的时间反而很短。
+ * <p>
+ * 平铺合并的思路是让一个线程替所有线程干活：
+ * 1.每个线程有一个自己的发布槽（{@link Slot}），要执行的操作先写入自己的槽中，所有槽串成一个发布链表；
+ * 2.写入后尝试获取合并锁，获取成功的线程成为合并者，遍历发布链表，依次执行所有槽中的操作并写回结果，
+ * 如果调用时合并锁正好空闲，就直接执行自己的操作，省去发布的开销，之后同样要处理其他线程已经发布的操作；
+ * 3.没有获取到锁的线程只需要在自己的槽上等待结果，不需要排队获取锁，等待期间只读取自己的槽，不会与其他线程争抢缓存行。
+ * 一次加锁执行了一批操作，数据一直留在合并者的CPU缓存中，锁交接的次数也大大减少。
+ * <p>
+ * 代价是多了发布、等待的开销，竞争不激烈时（例如只有一两个线程）反而比直接加锁慢，
+ * 适合很多线程频繁修改同一个小数据结构（计数器、优先队列、栈）的场景，交叉点见benchmarks模块的FlatCombiningBenchmark。
+ * <p>
+ * 注意事项：
+ * 1.操作由合并者线程执行，操作中不能依赖当前线程（ThreadLocal等），也不能再调用同一个FlatCombiner，否则会永远等待自己；
+ * 2.操作抛出的异常会在发起操作的线程中重新抛出，不影响其他操作；
+ * 3.线程长时间不使用时，它的槽会被合并者从链表中移除，再次使用时重新加入，
+ * 移除的次数可以通过{@link #removedSlots()}观察
+ */
+public class FlatCombiner<S> {
+
+    /**
+     * 合并者每次获取锁后最多遍历发布链表的次数，遍历过程中又有新的操作发布时可以顺便执行，
+     * 但不能一直执行下去，否则合并者自己的操作迟迟无法返回
+     */
+    private static final int MAX_PASSES = 4;
+
+    /**
+     * 每隔多少次合并清理一次发布链表
+     */
+    private static final int CLEANUP_PERIOD = 64;
+
+    /**
+     * 槽超过多少次合并没有发布过操作就被移除
+     */
+    private static final int MAX_IDLE_ROUNDS = 64;
+
+    /**
+     * 等待结果时先自旋的次数，之后每次检查前让出CPU
+     */
+    private static final int SPINS = 64;
+
+    private final S state;
+
+    private final AtomicReference<Slot<S>> head = new AtomicReference<>();
+
+    /**
+     * 合并锁，0表示空闲，1表示有合并者
+     */
+    private final AtomicInteger combining = new AtomicInteger();
+
+    private final ThreadLocal<Slot<S>> slots = ThreadLocal.withInitial(Slot::new);
+
+    /**
+     * 合并的次数，只在持有合并锁时修改，不需要volatile，释放合并锁时一并发布
+     */
+    private long rounds;
+
+    /**
+     * 合并者执行的操作总数，与{@link #rounds}一样只在持有合并锁时修改
+     */
+    private long combinedOperations;
+
+    /**
+     * 被清理移除的槽数量，与{@link #rounds}一样只在持有合并锁时修改
+     */
+    private long removedSlots;
+
+    /**
+     * @param state 被包装的数据结构，之后只能通过{@link #apply(Function)}访问
+     */
+    public FlatCombiner(S state) {
+        this.state = state;
+    }
+
+    /**
+     * 对数据结构执行一个操作并返回结果，操作可能由其他线程执行
+     *
+     * @author shiloh
+     * @date 2026/10/19 17:40
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R apply(Function<? super S, ? extends R> operation) {
+        if (combining.get() == 0 && combining.compareAndSet(0, 1)) {
+            // 没有竞争时直接执行，不需要发布到槽中，执行完再顺便处理其他线程发布的操作
+            try {
+                return operation.apply(state);
+            } finally {
+                try {
+                    combine(1);
+                } finally {
+                    combining.setRelease(0);
+                }
+            }
+        }
+        final var slot = slots.get();
+        slot.operation = operation;
+        // volatile写，保证合并者看到PENDING时一定能看到operation
+        slot.status = Slot.PENDING;
+        var spins = 0;
+        while (true) {
+            if (slot.status == Slot.DONE) {
+                return (R) slot.takeResult();
+            }
+            if (!slot.active) {
+                // 第一次使用，或者槽被合并者移除了：合并者只移除没有待执行操作的槽，
+                // 但它可能是在上面写入PENDING之前判定的，所以等待期间也要检查
+                publish(slot);
+            }
+            if (combining.get() == 0 && combining.compareAndSet(0, 1)) {
+                try {
+                    combine(0);
+                } finally {
+                    combining.setRelease(0);
+                }
+                continue;
+            }
+            if (++spins > SPINS) {
+                Thread.yield();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    public void execute(Consumer<? super S> operation) {
+        apply(state -> {
+            operation.accept(state);
+            return null;
+        });
+    }
+
+    /**
+     * 平均每次合并执行的操作数量，用来观察合并的效果，只有一个线程时为1
+     */
+    public double averageBatchSize() {
+        // 先读取合并锁，看到最近一次释放合并锁之前的统计值
+        combining.get();
+        final var rounds = this.rounds;
+        return rounds == 0 ? 0 : (double) combinedOperations / rounds;
+    }
+
+    /**
+     * 清理时从发布链表中移除的槽数量，用来确认移除、重新加入的过程确实发生过
+     */
+    public long removedSlots() {
+        combining.get();
+        return removedSlots;
+    }
+
+    private void publish(Slot<S> slot) {
+        slot.active = true;
+        while (true) {
+            final var first = head.get();
+            slot.next = first;
+            if (head.compareAndSet(first, slot)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 持有合并锁时调用
+     *
+     * @param applied 获取合并锁后已经直接执行的操作数量
+     */
+    private void combine(long applied) {
+        final var round = ++rounds;
+        var combined = applied;
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            var found = 0;
+            for (var slot = head.get(); slot != null; slot = slot.next) {
+                if (slot.status == Slot.PENDING) {
+                    slot.run(state, round);
+                    found++;
+                }
+            }
+            combined += found;
+            if (found == 0) {
+                break;
+            }
+        }
+        combinedOperations += combined;
+        if (round % CLEANUP_PERIOD == 0) {
+            cleanup(round);
+        }
+    }
+
+    /**
+     * 移除长时间没有发布操作的槽，不移除头节点：头节点可能正在被其他线程CAS，
+     * 而链表中其他节点的next只有合并者会修改。
+     * 把active置为false之后，槽的所有者随时可能重新加入：它会把这个槽的next改成当时的头节点，
+     * 所以必须先读出next、从链表中摘除，最后才把active置为false，之后不能再通过这个槽继续遍历，
+     * 否则会从旧的头节点重新走一遍，用过期的previous摘除节点，把链表连成环或者丢掉正在使用的槽
+     */
+    private void cleanup(long round) {
+        var previous = head.get();
+        if (previous == null) {
+            return;
+        }
+        var slot = previous.next;
+        while (slot != null) {
+            final var next = slot.next;
+            if (slot.status != Slot.PENDING && round - slot.lastRound > MAX_IDLE_ROUNDS) {
+                previous.next = next;
+                slot.active = false;
+                removedSlots++;
+            } else {
+                previous = slot;
+            }
+            slot = next;
+        }
+    }
+
+    /**
+     * 发布槽，每个线程在每个FlatCombiner上各有一个
+     */
+    private static final class Slot<S> {
+
+        static final int EMPTY = 0;
+
+        static final int PENDING = 1;
+
+        static final int DONE = 2;
+
+        volatile int status = EMPTY;
+
+        /**
+         * 是否在发布链表中，只有所有者会把它置为true，只有合并者会把它置为false
+         */
+        volatile boolean active;
+
+        volatile Slot<S> next;
+
+        Function<? super S, ?> operation;
+
+        Object result;
+
+        Throwable failure;
+
+        /**
+         * 最近一次执行操作的合并次数，只由合并者读写
+         */
+        long lastRound;
+
+        /**
+         * 合并者执行槽中的操作，结果在volatile写DONE之前写入，所有者读到DONE之后一定能看到结果
+         */
+        void run(S state, long round) {
+            try {
+                result = operation.apply(state);
+            } catch (Throwable e) {
+                failure = e;
+            }
+            operation = null;
+            lastRound = round;
+            status = DONE;
+        }
+
+        Object takeResult() {
+            final var result = this.result;
+            final var failure = this.failure;
+            this.result = null;
+            this.failure = null;
+            status = EMPTY;
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            return result;
+        }
+    }
+}
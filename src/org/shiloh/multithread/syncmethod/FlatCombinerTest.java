@@ -0,0 +1,98 @@
+package org.shiloh.multithread.syncmethod;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 17:55
+ * @description 平铺合并测试
+ */
+public class FlatCombinerTest {
+
+    /**
+     * 1.与{@link StripedCounterTest}一样，32个线程同时对同一个计数器累加，一半线程加1，一半线程减1，最终结果应为0，
+     * 计数器就是一个普通的long[1]，没有任何同步；
+     * 2.16个线程向同一个非线程安全的PriorityQueue中各放入10000个元素，再各取出10000个，取出的元素总数应为16万且队列最终为空；
+     * 3.操作抛出的异常在发起操作的线程中重新抛出；
+     * 4.16个线程中一半持续累加，另一半每累加200次就休眠50ms，休眠期间合并次数远超过64次，它们的槽会被清理移除，
+     * 醒来后重新加入发布链表。每个操作空转约2us，让合并锁经常被占用，操作才会通过槽发布。
+     * 最终结果应为16 * 2000，removedSlots大于0说明移除、重新加入的过程确实发生了
+     *
+     * @author shiloh
+     * @date 2026/10/19 17:58
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final var counter = new FlatCombiner<>(new long[1]);
+        run(32, add -> {
+            for (int j = 0; j < 100000; j++) {
+                counter.execute(count -> count[0] += add ? 1 : -1);
+            }
+        });
+        System.out.println("counter = " + counter.apply(count -> count[0])
+                + ", averageBatchSize = " + String.format("%.2f", counter.averageBatchSize()));
+
+        final var queue = new FlatCombiner<>(new PriorityQueue<Integer>());
+        final var polled = new FlatCombiner<>(new long[1]);
+        run(16, ignored -> {
+            for (int j = 0; j < 10000; j++) {
+                final var value = j;
+                queue.execute(q -> q.offer(value));
+            }
+            for (int j = 0; j < 10000; j++) {
+                if (queue.apply(PriorityQueue::poll) != null) {
+                    polled.execute(count -> count[0]++);
+                }
+            }
+        });
+        System.out.println("polled = " + polled.apply(count -> count[0]) + ", queue.size() = "
+                + queue.apply(PriorityQueue::size));
+
+        try {
+            queue.apply(q -> q.remove());
+        } catch (RuntimeException e) {
+            System.out.println("caught: " + e);
+        }
+
+        final var sleepy = new FlatCombiner<>(new long[1]);
+        run(16, busy -> {
+            for (int j = 0; j < 2000; j++) {
+                sleepy.execute(count -> {
+                    spin(2000);
+                    count[0]++;
+                });
+                if (!busy && j % 200 == 199) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        });
+        System.out.println("sleepy = " + sleepy.apply(count -> count[0]) + "（预期32000）, removedSlots = "
+                + sleepy.removedSlots());
+    }
+
+    private static void spin(long nanos) {
+        final var deadline = System.nanoTime() + nanos;
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void run(int threadCount, Consumer<Boolean> body) throws InterruptedException {
+        final var threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            final var add = i % 2 == 0;
+            final var thread = new Thread(() -> body.accept(add));
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.shiloh.multithread.syncmethod;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 9:30
+ * @description 分段（striped）计数器，可直接替换{@link Counter}
+ * {@link Counter}的add()和dec()都要获取this锁，当32个以上的线程同时修改同一个计数器时，所有线程都在争抢同一把锁，
+ * 并且get()读取的是一个非volatile的int变量，不能保证读取到其他线程写入的最新值。
+ * <p>
+ * StripedCounter的思路与{@link java.util.concurrent.atomic.LongAdder}一致：
+ * 把一个计数值拆成多个单元格（cell），每个线程根据自己的探针值（probe）选择一个单元格进行CAS累加，
+ * 不同线程大概率落在不同的单元格上，从而避免了对同一个内存地址的竞争。读取时将所有单元格的值相加即可。
+ * <p>
+ * 伪共享（false sharing）：CPU缓存是以缓存行（一般为64字节）为单位加载的，
+ * 如果两个单元格位于同一个缓存行，那么即使两个线程修改的是不同的单元格，也会导致彼此的缓存行失效。
+ * 这里所有单元格存放在同一个{@link AtomicLongArray}中，相邻单元格之间间隔{@link #PADDING}个long（128字节），
+ * 保证每个单元格独占缓存行（128字节同时覆盖了相邻缓存行预取的情况）。
+ * 每个单元格占用两个long：计数值和紧跟其后的守卫字（guard），守卫字的低位记录正在修改这个单元格的写线程数量，
+ * {@link #FROZEN}位表示单元格被冻结。冻结标记不占用计数值的取值范围，单元格的值可以是任意long。
+ * <p>
+ * 读取分两种模式：
+ * {@link #sum()}：依次读取每个单元格并相加，开销很小，但读取过程中其他线程仍在写入，结果只是一个近似值；
+ * {@link #snapshot()}：依次“冻结”所有单元格后再求和，冻结期间写线程会自旋等待，得到的是某一时刻的精确值。
+ * 为了支持冻结，每次累加需要修改守卫字两次，比LongAdder多了两次原子操作，但都落在同一个缓存行上。
+ */
+public class StripedCounter {
+
+    /**
+     * 相邻单元格之间间隔的long数量：16 * 8 = 128字节
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * 守卫字中的冻结位，由{@link #snapshot()}设置，低位是正在修改单元格的写线程数量，不会达到这一位
+     */
+    private static final long FROZEN = 1L << 62;
+
+    /**
+     * 每个线程的探针值，用于选择单元格，CAS失败时会重新计算，让竞争的线程分散到其他单元格上
+     */
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(
+            () -> new int[]{mix((int) Thread.currentThread().getId())}
+    );
+
+    private final AtomicLongArray cells;
+
+    /**
+     * 单元格数量 - 1，单元格数量为2的幂，可以用位运算代替取模
+     */
+    private final int mask;
+
+    /**
+     * 默认单元格数量为CPU核数向上取整到2的幂
+     */
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripes 期望的单元格数量，会向上取整到2的幂
+     */
+    public StripedCounter(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        final var size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.mask = size - 1;
+        this.cells = new AtomicLongArray(size * PADDING);
+    }
+
+    public void add(long newValue) {
+        final var probe = PROBE.get();
+        var h = probe[0];
+        while (true) {
+            final var index = (h & mask) * PADDING;
+            final var guard = cells.get(index + 1);
+            if ((guard & FROZEN) != 0) {
+                // 单元格正在被snapshot()冻结，稍等片刻再重试
+                Thread.onSpinWait();
+                continue;
+            }
+            if (!cells.compareAndSet(index + 1, guard, guard + 1)) {
+                // CAS失败说明有其他线程在竞争这个单元格（或者刚刚被冻结），换一个单元格试试
+                h = probe[0] = mix(h);
+                continue;
+            }
+            // 已登记为写线程，snapshot()会等待登记的写线程全部离开后才读取计数值
+            cells.getAndAdd(index, newValue);
+            cells.getAndAdd(index + 1, -1);
+            return;
+        }
+    }
+
+    public void dec(long newValue) {
+        add(-newValue);
+    }
+
+    /**
+     * 与{@link Counter#get()}保持一致的读取方法，等价于{@link #sum()}
+     *
+     * @author shiloh
+     * @date 2026/10/18 9:48
+     */
+    public long get() {
+        return sum();
+    }
+
+    /**
+     * 近似求和：不阻塞写线程，读取过程中发生的写入可能只被统计了一部分
+     * 在没有并发写入的时刻调用，结果是精确的
+     *
+     * @author shiloh
+     * @date 2026/10/18 9:50
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * 精确快照：按下标顺序依次冻结所有单元格，再求和并解冻
+     * 冻结一个单元格分两步：先设置守卫字的冻结位，之后不会再有新的写线程进入；再等待已经进入的写线程离开。
+     * 由于所有快照线程都按同样的顺序冻结单元格，多个快照线程并发执行时不会出现死锁。
+     * 冻结期间写线程会自旋等待，因此只适合低频调用（例如对账、定时上报）
+     *
+     * @author shiloh
+     * @date 2026/10/18 9:55
+     */
+    public long snapshot() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            final var guardIndex = i * PADDING + 1;
+            while (true) {
+                final var guard = cells.get(guardIndex);
+                if ((guard & FROZEN) == 0 && cells.compareAndSet(guardIndex, guard, guard | FROZEN)) {
+                    break;
+                }
+                Thread.onSpinWait();
+            }
+            while (cells.get(guardIndex) != FROZEN) {
+                Thread.onSpinWait();
+            }
+            sum += cells.get(i * PADDING);
+        }
+        for (int i = 0; i <= mask; i++) {
+            cells.getAndAdd(i * PADDING + 1, -FROZEN);
+        }
+        return sum;
+    }
+
+    /**
+     * xorshift伪随机，用于生成和更新探针值
+     */
+    private static int mix(int h) {
+        h ^= h << 13;
+        h ^= h >>> 17;
+        h ^= h << 5;
+        return h == 0 ? 1 : h;
+    }
+}
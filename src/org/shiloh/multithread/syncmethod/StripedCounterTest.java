@@ -0,0 +1,77 @@
+package org.shiloh.multithread.syncmethod;
+
+import java.util.ArrayList;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 10:05
+ * @description 分段计数器测试
+ */
+public class StripedCounterTest {
+
+    /**
+     * 1.32个线程同时对同一个计数器累加，一半线程加1，一半线程减1，最终结果应为0
+     * 统计过程中主线程可以随时调用sum()读取近似值，调用snapshot()读取精确值；
+     * 2.16个线程各加1万次，期间主线程反复做快照，快照值不能超过总数，并且不会递减，最终结果应为16万；
+     * 3.单元格的值可以是任意long，包括Long.MIN_VALUE，此时累加和快照都不能卡住
+     *
+     * @author shiloh
+     * @date 2026/10/18 10:08
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final var counter = new StripedCounter();
+        final var threads = new ArrayList<Thread>();
+        for (int i = 0; i < 32; i++) {
+            final var add = i % 2 == 0;
+            final var thread = new Thread(() -> {
+                for (int j = 0; j < 100000; j++) {
+                    if (add) {
+                        counter.add(1);
+                    } else {
+                        counter.dec(1);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        System.out.println("counter.sum() = " + counter.sum());
+        System.out.println("counter.snapshot() = " + counter.snapshot());
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println("counter.get() = " + counter.get() + ", expected = 0");
+
+        final var increments = new StripedCounter();
+        threads.clear();
+        for (int i = 0; i < 16; i++) {
+            final var thread = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    increments.add(1);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        var previous = 0L;
+        var monotonic = true;
+        for (int i = 0; i < 1000; i++) {
+            final var snapshot = increments.snapshot();
+            monotonic &= snapshot >= previous && snapshot <= 160000;
+            previous = snapshot;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println("increments.snapshot() = " + increments.snapshot() + ", expected = 160000"
+                + ", snapshots monotonic = " + monotonic);
+
+        // 单线程时所有累加都落在同一个单元格上，单元格的值会真的等于Long.MIN_VALUE
+        final var extreme = new StripedCounter(1);
+        extreme.add(Long.MIN_VALUE);
+        extreme.add(1);
+        System.out.println("extreme.snapshot() = " + extreme.snapshot() + ", expected = " + (Long.MIN_VALUE + 1));
+        extreme.dec(1);
+        System.out.println("extreme.sum() = " + extreme.sum() + ", expected = " + Long.MIN_VALUE);
+    }
+}
@@ -0,0 +1,226 @@
+package org.shiloh.multithread.syncmethod;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 16:40
+ * @description 按key分段加锁的计数器集合，把{@link org.shiloh.multithread.base.ThreadSyncTest03}中的
+ * studentCount/STUDENT_LOCK、teacherCount/TEACHER_LOCK推广到任意多个计数器：
+ * <pre>
+ * counters.increment("student");
+ * counters.decrement("teacher");
+ * </pre>
+ * 每个分段保存映射到该分段的key的计数值，由{@link StripedLock}中同一下标的锁保护，
+ * 修改不同分段的线程互不影响，几千个key也只需要{@link StripedLock#stripes()}个锁和分段。
+ * <p>
+ * 每个分段的计数值连续保存在一个long数组中，HashMap只记录key在数组中的下标，已存在的key累加时不需要修改HashMap，
+ * 也不会产生装箱对象。数组首尾各填充16个long（128字节），填充与计数值在同一个数组对象中，
+ * 无论GC怎样移动对象，不同分段的计数值之间都至少隔着128字节，修改不同分段不会伪共享；
+ * 同一分段内的计数值由同一个锁保护，同一时刻只有一个线程在写，挨在一起也没有关系。
+ * <p>
+ * 与{@link StripedCounter}的区别：StripedCounter是把“一个”计数器拆到多个单元格上，适合所有线程都在修改同一个计数器的场景；
+ * StripedCounters管理的是“很多个”计数器，每个计数器的值是精确的，适合线程分散修改不同计数器的场景。
+ * 如果某个key本身就非常热（所有线程都在修改同一个key），它所在的分段依然是瓶颈，这时应该为这个key单独使用StripedCounter
+ */
+public class StripedCounters<K> {
+
+    private final StripedLock locks;
+
+    private final Segment<K>[] segments;
+
+    public StripedCounters() {
+        this(StripedLock.defaultStripes());
+    }
+
+    /**
+     * @param stripes 期望的分段数量，会向上取整到2的幂
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public StripedCounters(int stripes) {
+        this.locks = new StripedLock(stripes);
+        this.segments = new Segment[locks.stripes()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    /**
+     * 累加delta，key不存在时从0开始
+     *
+     * @return 累加后的值
+     * @author shiloh
+     * @date 2026/10/19 16:48
+     */
+    public long add(K key, long delta) {
+        final var index = locks.indexFor(key);
+        final var lock = locks.getAt(index);
+        lock.lock();
+        try {
+            return segments[index].add(key, delta);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long increment(K key) {
+        return add(key, 1);
+    }
+
+    public long decrement(K key) {
+        return add(key, -1);
+    }
+
+    /**
+     * @return key的当前值，不存在时返回0
+     */
+    public long get(K key) {
+        final var index = locks.indexFor(key);
+        final var lock = locks.getAt(index);
+        lock.lock();
+        try {
+            return segments[index].get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 移除key
+     *
+     * @return 移除前的值，不存在时返回0
+     */
+    public long remove(K key) {
+        final var index = locks.indexFor(key);
+        final var lock = locks.getAt(index);
+        lock.lock();
+        try {
+            return segments[index].remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 所有计数器的总和，依次锁住每个分段求和，每个分段内部是一致的，但不同分段是在不同时刻读取的，
+     * 并发修改时结果只是近似值
+     *
+     * @author shiloh
+     * @date 2026/10/19 16:55
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < segments.length; i++) {
+            final var lock = locks.getAt(i);
+            lock.lock();
+            try {
+                sum += segments[i].sum();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 复制所有计数器的当前值，与{@link #sum()}一样只保证每个分段内部一致
+     */
+    public Map<K, Long> snapshot() {
+        final var result = new HashMap<K, Long>();
+        for (int i = 0; i < segments.length; i++) {
+            final var lock = locks.getAt(i);
+            lock.lock();
+            try {
+                segments[i].copyTo(result);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    public int stripes() {
+        return segments.length;
+    }
+
+    /**
+     * 一个分段，所有方法都由调用方持有对应的锁。
+     * 第i个key保存在keys[i]，计数值保存在values[PADDING + i]，删除时把最后一个key移到空出的位置，保持连续
+     */
+    private static final class Segment<K> {
+
+        private static final int PADDING = 16;
+
+        private static final int INITIAL_CAPACITY = 8;
+
+        private final Map<K, Integer> slots = new HashMap<>();
+
+        private Object[] keys = new Object[INITIAL_CAPACITY];
+
+        private long[] values = new long[INITIAL_CAPACITY + 2 * PADDING];
+
+        private int size;
+
+        long add(K key, long delta) {
+            var slot = slots.get(key);
+            if (slot == null) {
+                slot = insert(key);
+            }
+            return values[PADDING + slot] += delta;
+        }
+
+        long get(K key) {
+            final var slot = slots.get(key);
+            return slot == null ? 0 : values[PADDING + slot];
+        }
+
+        @SuppressWarnings("unchecked")
+        long remove(K key) {
+            final var slot = slots.remove(key);
+            if (slot == null) {
+                return 0;
+            }
+            final var value = values[PADDING + slot];
+            final var last = --size;
+            if (slot != last) {
+                final var lastKey = (K) keys[last];
+                keys[slot] = lastKey;
+                values[PADDING + slot] = values[PADDING + last];
+                slots.put(lastKey, slot);
+            }
+            keys[last] = null;
+            values[PADDING + last] = 0;
+            return value;
+        }
+
+        long sum() {
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += values[PADDING + i];
+            }
+            return sum;
+        }
+
+        @SuppressWarnings("unchecked")
+        void copyTo(Map<K, Long> target) {
+            for (int i = 0; i < size; i++) {
+                target.put((K) keys[i], values[PADDING + i]);
+            }
+        }
+
+        private int insert(K key) {
+            if (size == keys.length) {
+                final var capacity = size << 1;
+                keys = Arrays.copyOf(keys, capacity);
+                // 尾部的填充也要保留，直接按新的长度复制即可，多出来的部分都是0
+                values = Arrays.copyOf(values, capacity + 2 * PADDING);
+            }
+            final var slot = size++;
+            keys[slot] = key;
+            slots.put(key, slot);
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.shiloh.multithread.syncmethod;
+
+import java.util.ArrayList;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 17:00
+ * @description 按key分段加锁的计数器集合测试
+ */
+public class StripedCountersTest {
+
+    private static final int KEYS = 1000;
+
+    /**
+     * 1.与ThreadSyncTest03一样，4个线程分别对student、teacher两个计数器加1、减1各10000次，最终结果都为0；
+     * 2.16个线程对1000个计数器累加，第i个线程只加1，第i + 1个线程只减1，所有计数器的最终值都应为0，
+     * 运行过程中主线程可以随时调用sum()读取近似值
+     *
+     * @author shiloh
+     * @date 2026/10/19 17:02
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final var counters = new StripedCounters<String>();
+        System.out.println("counters.stripes() = " + counters.stripes());
+        final var keys = new String[]{"student", "student", "teacher", "teacher"};
+        final var threads = new ArrayList<Thread>();
+        for (int i = 0; i < keys.length; i++) {
+            final var key = keys[i];
+            final var add = i % 2 == 0;
+            final var thread = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    if (add) {
+                        counters.increment(key);
+                    } else {
+                        counters.decrement(key);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println("counters.snapshot() = " + counters.snapshot());
+
+        final var userCounters = new StripedCounters<Integer>();
+        threads.clear();
+        final var start = System.currentTimeMillis();
+        for (int i = 0; i < 16; i++) {
+            final var delta = i % 2 == 0 ? 1 : -1;
+            final var offset = i;
+            final var thread = new Thread(() -> {
+                for (int j = 0; j < 100000; j++) {
+                    userCounters.add((offset / 2 + j) % KEYS, delta);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        System.out.println("userCounters.sum() = " + userCounters.sum());
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        final var snapshot = userCounters.snapshot();
+        final var nonZero = snapshot.values().stream().filter(value -> value != 0).count();
+        System.out.println("keys = " + snapshot.size() + ", nonZero = " + nonZero + ", sum = " + userCounters.sum()
+                + ", 耗时：" + (System.currentTimeMillis() - start) + "ms");
+    }
+}
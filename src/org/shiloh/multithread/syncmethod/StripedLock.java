@@ -0,0 +1,215 @@
+package org.shiloh.multithread.syncmethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 16:20
+ * @description 按key分段的锁（lock striping）
+ * {@link org.shiloh.multithread.base.ThreadSyncTest03}中，把一个LOCK拆成STUDENT_LOCK和TEACHER_LOCK后，
+ * 修改studentCount和teacherCount的线程不再互相等待。但这是手写的：每多一个需要独立加锁的数据就要多声明一个锁，
+ * 数据的数量在运行时才确定（例如每个用户一个计数器）时就没办法手写了，而每个key都创建一个锁对象又会占用大量内存。
+ * <p>
+ * StripedLock预先创建固定数量的锁（stripe），每个key根据哈希值映射到其中一个：
+ * 1.同一个key总是得到同一个锁，保证了正确性；不同的key大概率得到不同的锁，可以并行执行；
+ * 两个key碰巧映射到同一个锁时只是多了一些不必要的等待，不影响正确性；
+ * 2.锁的数量向上取整到2的幂，用位运算代替取模；默认为CPU核数的4倍，同时运行的线程数不超过核数，
+ * 锁越多两个线程碰巧选中同一个锁的概率越低，而锁的数量与key的数量无关，几千个key也只占用几十个锁；
+ * 3.所有锁在构造方法中连续创建，在堆中也是相邻的，一个锁加锁时修改的状态字段与相邻锁的状态字段可能位于同一个缓存行，
+ * 产生伪共享。ReentrantLock的状态保存在它内部另外创建的Sync对象中，填充ReentrantLock本身只能依赖两个对象的分配顺序，
+ * GC移动对象后多个Sync可能被紧挨着放在一起。所以这里的锁（{@link PaddedLock}）直接基于AbstractQueuedSynchronizer实现，
+ * 在同步器子类中填充128字节（与{@link StripedCounter}的填充大小一致）：子类字段排在父类的状态字段之后，
+ * 填充与状态字段在同一个对象中，无论GC怎样移动对象，相邻两个锁的状态字段之间都至少隔着128字节；
+ * 4.需要同时锁住多个key时使用{@link #getAll(Iterable)}，返回的锁已按下标排序，所有线程都按这个顺序加锁就不会死锁
+ */
+public class StripedLock {
+
+    private final Lock[] locks;
+
+    /**
+     * 锁的数量 - 1
+     */
+    private final int mask;
+
+    /**
+     * 默认锁数量为CPU核数的4倍，向上取整到2的幂
+     */
+    public StripedLock() {
+        this(defaultStripes());
+    }
+
+    /**
+     * @param stripes 期望的锁数量，会向上取整到2的幂
+     */
+    public StripedLock(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        final var size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.mask = size - 1;
+        this.locks = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            this.locks[i] = new PaddedLock();
+        }
+    }
+
+    static int defaultStripes() {
+        return Runtime.getRuntime().availableProcessors() * 4;
+    }
+
+    /**
+     * key对应的锁
+     *
+     * @author shiloh
+     * @date 2026/10/19 16:28
+     */
+    public Lock get(Object key) {
+        return locks[indexFor(key)];
+    }
+
+    /**
+     * 下标对应的锁，与{@link #indexFor(Object)}配合使用，需要同时按下标访问其他分段数据时可以只计算一次哈希
+     */
+    public Lock getAt(int index) {
+        return locks[index];
+    }
+
+    /**
+     * 多个key对应的锁，去掉了重复的锁并按下标升序排列，按返回的顺序依次加锁、逆序解锁
+     *
+     * @author shiloh
+     * @date 2026/10/19 16:32
+     */
+    public List<Lock> getAll(Iterable<?> keys) {
+        final var used = new boolean[locks.length];
+        for (final var key : keys) {
+            used[indexFor(key)] = true;
+        }
+        final var result = new ArrayList<Lock>();
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                result.add(locks[i]);
+            }
+        }
+        return result;
+    }
+
+    public int indexFor(Object key) {
+        return spread(Objects.requireNonNull(key).hashCode()) & mask;
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+
+    /**
+     * 只取低位作为下标，hashCode()的高位需要混合到低位上，否则低位相同的key（例如连续的Long乘以2的幂）都会落到同一个锁上
+     */
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 可重入的非公平独占锁，语义与非公平的ReentrantLock相同，只是状态字段之后带有填充
+     */
+    private static final class PaddedLock implements Lock {
+
+        private final Sync sync = new Sync();
+
+        @Override
+        public void lock() {
+            sync.acquire(1);
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            sync.acquireInterruptibly(1);
+        }
+
+        @Override
+        public boolean tryLock() {
+            return sync.tryAcquire(1);
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            return sync.tryAcquireNanos(1, unit.toNanos(time));
+        }
+
+        @Override
+        public void unlock() {
+            sync.release(1);
+        }
+
+        @Override
+        public Condition newCondition() {
+            return sync.newCondition();
+        }
+    }
+
+    /**
+     * state为重入次数，0表示未加锁。加锁、解锁只修改父类中的state、exclusiveOwnerThread等字段，
+     * 后面的16个long只用于填充
+     */
+    @SuppressWarnings("unused")
+    private static final class Sync extends AbstractQueuedSynchronizer {
+
+        private static final long serialVersionUID = 1L;
+
+        private long p0, p1, p2, p3, p4, p5, p6, p7;
+        private long p8, p9, pa, pb, pc, pd, pe, pf;
+
+        @Override
+        protected boolean tryAcquire(int acquires) {
+            final var current = Thread.currentThread();
+            final var state = getState();
+            if (state == 0) {
+                if (compareAndSetState(0, acquires)) {
+                    setExclusiveOwnerThread(current);
+                    return true;
+                }
+                return false;
+            }
+            if (getExclusiveOwnerThread() == current) {
+                final var next = state + acquires;
+                if (next < 0) {
+                    throw new Error("Maximum lock count exceeded");
+                }
+                // 重入时当前线程已经持有锁，不需要CAS
+                setState(next);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected boolean tryRelease(int releases) {
+            if (getExclusiveOwnerThread() != Thread.currentThread()) {
+                throw new IllegalMonitorStateException();
+            }
+            final var state = getState() - releases;
+            final var free = state == 0;
+            if (free) {
+                setExclusiveOwnerThread(null);
+            }
+            setState(state);
+            return free;
+        }
+
+        @Override
+        protected boolean isHeldExclusively() {
+            return getExclusiveOwnerThread() == Thread.currentThread();
+        }
+
+        Condition newCondition() {
+            return new ConditionObject();
+        }
+    }
+}
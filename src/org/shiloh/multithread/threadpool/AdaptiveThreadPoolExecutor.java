@@ -0,0 +1,251 @@
+package org.shiloh.multithread.threadpool;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 9:30
+ * @description 根据吞吐量和排队时间自动调整线程数的线程池
+ * ThreadPoolExecutor只有在队列满了之后才会创建超过corePoolSize的线程，
+ * 所以CountDownLatchExample中core为CPU核数、max为1024、队列为无界LinkedBlockingQueue的线程池，线程数永远不会超过CPU核数：
+ * IO密集的任务大部分时间在等待，CPU核数个线程远远不够；而对CPU密集的任务，线程数超过核数也只会增加切换开销。
+ * <p>
+ * 这里使用有界队列，由一个控制线程每隔{@link #CONTROL_INTERVAL_MILLIS}采样一次（基于{@link InstrumentedThreadPoolExecutor}的统计），
+ * 调整corePoolSize：
+ * 1.有排队（平均排队时间超过目标值或队列长度超过线程数）时扩容。
+ * 根据Little定律，需要的并发数 = 到达率 × 平均执行时间，再加上消化积压任务需要的并发数，直接扩到这个数（每次最多翻倍）；
+ * 2.爬山法（hill climbing）校验：如果上一次扩容后吞吐量提升不到{@link #MIN_GAIN}，说明瓶颈不在线程数（CPU已满或下游已饱和），
+ * 回退到扩容前的大小，并在接下来的{@link #COOLDOWN_INTERVALS}个周期内不再扩容；
+ * 之后进入饱和状态：仍然排队，但每个周期试探性地缩容1/4，只要吞吐量没有下降就继续缩，下降了再回退并冷却，
+ * 这样CPU密集的任务在排队时线程数也能降到接近CPU核数，而不是停在扩容到的最大值；
+ * 3.没有排队时，按Little定律估算实际忙碌的线程数，空闲线程超过一半时逐步缩容；
+ * 估算结果显示线程都很忙时，也试探性地缩容1/8，如果下一个周期排队时间或积压任务上升则回退并冷却。
+ * 没有排队时吞吐量就等于到达率，吞吐量下降只说明提交的任务变少了，不能作为回退的依据。
+ * <p>
+ * 调整时corePoolSize和maximumPoolSize同时设为目标值：如果只调小corePoolSize，队列不为空时多出的线程会一直取到任务，
+ * 实际并发数并不会降下来；调小maximumPoolSize后，多出的线程在取下一个任务时就会退出。
+ * 线程数达到上限、队列也满了之后，新任务交给拒绝策略处理。
+ */
+public class AdaptiveThreadPoolExecutor extends InstrumentedThreadPoolExecutor {
+
+    static final long CONTROL_INTERVAL_MILLIS = 500;
+
+    /**
+     * 扩容后吞吐量至少要提升5%才认为扩容有效
+     */
+    static final double MIN_GAIN = 0.05;
+
+    static final int COOLDOWN_INTERVALS = 5;
+
+    /**
+     * 缩容时保留的余量
+     */
+    private static final double HEADROOM = 1.25;
+
+    private final int minPoolSize;
+
+    private final int maxPoolSize;
+
+    private final long targetQueueWaitNanos;
+
+    private final ScheduledExecutorService controller;
+
+    /**
+     * 以下字段只由控制线程读写
+     */
+    private long lastSampleNanos = System.nanoTime();
+
+    private long lastCompleted;
+
+    private long lastExecutionCount;
+
+    private long lastExecutionSum;
+
+    private long lastQueueWaitCount;
+
+    private long lastQueueWaitSum;
+
+    private int lastQueued;
+
+    private double lastQueueWaitNanos;
+
+    private double lastThroughput;
+
+    /**
+     * 上一次扩容前的线程数，上一次不是扩容时为0
+     */
+    private int sizeBeforeGrow;
+
+    /**
+     * 上一次缩容前的线程数，上一次不是缩容时为0
+     */
+    private int sizeBeforeShrink;
+
+    private int cooldown;
+
+    /**
+     * 扩容被证明无效后为true，此时即使排队也试探性地缩容，队列清空或缩容导致吞吐量下降后为false
+     */
+    private boolean saturated;
+
+    /**
+     * @param minPoolSize     线程数下限，也是初始线程数
+     * @param maxPoolSize     线程数上限
+     * @param queueCapacity   队列容量
+     * @param targetQueueWait 可接受的平均排队时间，超过时扩容
+     * @param handler         队列已满且线程数达到上限时的拒绝策略
+     */
+    public AdaptiveThreadPoolExecutor(int minPoolSize, int maxPoolSize, int queueCapacity, long targetQueueWait,
+                                      TimeUnit unit, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+        super(minPoolSize, minPoolSize, 5L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory, handler);
+        if (minPoolSize <= 0) {
+            throw new IllegalArgumentException("minPoolSize must be positive: " + minPoolSize);
+        }
+        if (maxPoolSize < minPoolSize) {
+            throw new IllegalArgumentException("maxPoolSize must not be less than minPoolSize: " + maxPoolSize);
+        }
+        this.minPoolSize = minPoolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.targetQueueWaitNanos = unit.toNanos(targetQueueWait);
+        this.controller = Executors.newSingleThreadScheduledExecutor(r -> {
+            final var thread = new Thread(r, "AdaptiveThreadPoolController");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.controller.scheduleWithFixedDelay(this::adjust, CONTROL_INTERVAL_MILLIS, CONTROL_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 创建线程数在[minPoolSize, maxPoolSize]之间自动调整的线程池，目标排队时间10ms，队列满时由调用方线程执行任务
+     *
+     * @author shiloh
+     * @date 2026/10/19 9:45
+     */
+    public static AdaptiveThreadPoolExecutor newAdaptiveThreadPool(String namePrefix, int minPoolSize,
+                                                                   int maxPoolSize, int queueCapacity) {
+        return new AdaptiveThreadPoolExecutor(minPoolSize, maxPoolSize, queueCapacity, 10, TimeUnit.MILLISECONDS,
+                namedThreadFactory(namePrefix), new CallerRunsPolicy());
+    }
+
+    @Override
+    protected void terminated() {
+        controller.shutdownNow();
+        super.terminated();
+    }
+
+    /**
+     * 采样一次并调整线程数
+     */
+    void adjust() {
+        try {
+            final var now = System.nanoTime();
+            final var intervalNanos = Math.max(now - lastSampleNanos, 1);
+            final var metrics = metrics();
+            final var execution = metrics.getExecution();
+            final var queueWait = metrics.getQueueWait();
+            final var completed = metrics.getCompletedCount();
+            final var executionCount = execution.count();
+            final var executionSum = execution.sum();
+            final var queueWaitCount = queueWait.count();
+            final var queueWaitSum = queueWait.sum();
+            final var queued = metrics.getQueueSize();
+
+            final var throughput = (completed - lastCompleted) * 1e9 / intervalNanos;
+            final var serviceNanos = executionCount == lastExecutionCount
+                    ? 0 : (double) (executionSum - lastExecutionSum) / (executionCount - lastExecutionCount);
+            final var queueWaitNanos = queueWaitCount == lastQueueWaitCount
+                    ? 0 : (double) (queueWaitSum - lastQueueWaitSum) / (queueWaitCount - lastQueueWaitCount);
+            final var current = getCorePoolSize();
+
+            var target = current;
+            var grew = false;
+            var shrunk = false;
+            if (queueWaitNanos > targetQueueWaitNanos || queued > current) {
+                if (sizeBeforeShrink > 0 && (!saturated || throughput < lastThroughput * (1 - MIN_GAIN))) {
+                    // 上次缩容后开始排队，或者饱和状态下缩容导致吞吐量下降，回退
+                    target = sizeBeforeShrink;
+                    cooldown = COOLDOWN_INTERVALS;
+                    saturated = false;
+                } else if (sizeBeforeGrow > 0 && throughput < lastThroughput * (1 + MIN_GAIN)) {
+                    // 上次扩容没有带来吞吐量提升，回退
+                    target = sizeBeforeGrow;
+                    cooldown = COOLDOWN_INTERVALS;
+                    saturated = true;
+                } else if (cooldown > 0) {
+                    cooldown--;
+                } else if (saturated) {
+                    // 多出的线程只会争抢CPU或下游资源，试探性地减少1/4
+                    target = current - Math.max(1, current / 4);
+                    shrunk = true;
+                } else {
+                    // 到达率 = 完成速率 + 队列增长速率，再加上在一个周期内消化掉积压任务所需的速率
+                    // 队列满了之后拒绝策略（例如CallerRunsPolicy）会压低到达率，只看到达率会低估需要的线程数
+                    final var arrival = throughput + (queued - lastQueued) * 1e9 / intervalNanos;
+                    final var backlog = queued * 1e9 / intervalNanos;
+                    final var required = (int) Math.ceil((arrival + backlog) * serviceNanos / 1e9);
+                    target = Math.max(current + 1, Math.min(required, current * 2));
+                    grew = true;
+                }
+            } else if (sizeBeforeShrink > 0 && (queueWaitNanos - lastQueueWaitNanos > targetQueueWaitNanos / 4
+                    || queued > Math.max(lastQueued, current / 2))) {
+                // 上次缩容后排队时间或积压任务开始上升，虽然还没有超过扩容的阈值，也回退
+                target = sizeBeforeShrink;
+                cooldown = COOLDOWN_INTERVALS;
+                saturated = false;
+            } else if (cooldown > 0) {
+                saturated = false;
+                cooldown--;
+            } else {
+                saturated = false;
+                final var busy = throughput * serviceNanos / 1e9;
+                final var needed = (int) Math.ceil(busy * HEADROOM);
+                if (needed < current / 2) {
+                    target = Math.max(needed, current - Math.max(1, current / 4));
+                } else {
+                    // 执行时间是墙上时间，线程争抢CPU时会被拉长，估算出的忙碌线程数偏大，
+                    // 所以看起来“都很忙”时也试探性地减少1/8，排队时间或积压任务上升时再回退
+                    target = current - Math.max(1, current / 8);
+                }
+                shrunk = true;
+            }
+            target = Math.max(minPoolSize, Math.min(target, maxPoolSize));
+            sizeBeforeGrow = grew && target > current ? current : 0;
+            sizeBeforeShrink = shrunk && target < current ? current : 0;
+            resize(target);
+
+            lastSampleNanos = now;
+            lastCompleted = completed;
+            lastExecutionCount = executionCount;
+            lastExecutionSum = executionSum;
+            lastQueueWaitCount = queueWaitCount;
+            lastQueueWaitSum = queueWaitSum;
+            lastQueued = queued;
+            lastQueueWaitNanos = queueWaitNanos;
+            lastThroughput = throughput;
+        } catch (RuntimeException e) {
+            // 控制线程不能因为一次采样失败而停止调整
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 任何时候都要满足core <= max，扩容先调max，缩容先调core
+     */
+    private void resize(int target) {
+        final var current = getCorePoolSize();
+        if (target > current) {
+            setMaximumPoolSize(target);
+            setCorePoolSize(target);
+        } else if (target < current) {
+            setCorePoolSize(target);
+            setMaximumPoolSize(target);
+        }
+    }
+}
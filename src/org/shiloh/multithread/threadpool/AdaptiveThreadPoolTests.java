@@ -0,0 +1,71 @@
+package org.shiloh.multithread.threadpool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/19 10:00
+ * @description 自动调整线程数的线程池测试
+ * 1.IO密集：每个任务sleep 20ms，每秒提交约1000个，需要约20个线程，线程数会从CPU核数逐步扩容；
+ * 2.CPU密集：每个任务空转5ms，持续提交，IO阶段扩出来的线程只会争抢CPU：不排队时试探性缩容不会让排队时间上升，
+ * 排队时扩容不能提升吞吐量，进入饱和状态后同样逐步缩容，所以这一阶段线程数持续下降；
+ * 3.停止提交后线程数逐步缩回下限，吞吐量降为0不会触发回退，线程数不会再上升。
+ * 单核机器上IO阶段扩到40多个线程，CPU阶段结束时约10个，空闲阶段降到1个。
+ */
+public class AdaptiveThreadPoolTests {
+
+    public static void main(String[] args) throws InterruptedException {
+        final var cores = Runtime.getRuntime().availableProcessors();
+        final var threadPool = AdaptiveThreadPoolExecutor.newAdaptiveThreadPool("adaptive", cores, 256, 1024);
+        final var reporter = new Thread(() -> {
+            while (!threadPool.isShutdown()) {
+                final var metrics = threadPool.metrics();
+                System.out.printf("core = %d, pool = %d, queue = %d, completed = %d%n", threadPool.getCorePoolSize(),
+                        metrics.getPoolSize(), metrics.getQueueSize(), metrics.getCompletedCount());
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        reporter.setDaemon(true);
+        reporter.start();
+
+        System.out.println("io bound tasks");
+        submitFor(threadPool, 5000, () -> sleep(20));
+        System.out.println("cpu bound tasks");
+        submitFor(threadPool, 5000, () -> spin(5));
+        System.out.println("idle");
+        Thread.sleep(4000);
+        threadPool.shutdown();
+        threadPool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 每1ms提交1个任务，持续millis毫秒
+     */
+    private static void submitFor(AdaptiveThreadPoolExecutor threadPool, long millis, Runnable task)
+            throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime() < deadline) {
+            threadPool.execute(task);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void spin(long millis) {
+        final var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
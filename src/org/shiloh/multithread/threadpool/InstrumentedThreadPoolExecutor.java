@@ -0,0 +1,129 @@
+package org.shiloh.multithread.threadpool;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 17:15
+ * @description 带统计功能的线程池
+ * {@link ThreadPoolExecutor}预留了beforeExecute()和afterExecute()两个钩子方法，分别在工作线程执行任务前后调用。
+ * 这里在execute()中记录任务的提交时间，在beforeExecute()中计算排队等待时间，在afterExecute()中计算执行时间，
+ * 分别记录到两个{@link LatencyHistogram}中；再加上被拒绝的任务数、执行失败的任务数，
+ * 以及线程池自带的活跃线程数、队列长度、已完成任务数，通过{@link #metrics()}随时获取，用于根据数据调整线程池大小。
+ * <p>
+ * 注意：提交的任务会被包装成{@link TimedTask}，shutdownNow()返回的、队列中看到的都是包装后的任务；
+ * {@link ThreadPoolMetrics}中的两个直方图是实时更新的同一个对象，不是快照。
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    private final LatencyHistogram execution = new LatencyHistogram();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * 当前线程正在执行的任务的开始时间
+     */
+    private final ThreadLocal<long[]> startNanos = ThreadLocal.withInitial(() -> new long[1]);
+
+    public InstrumentedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                          BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                                          RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+        // 父类构造方法不能使用this，这里再包装一次拒绝策略用于计数
+        setRejectedExecutionHandler(handler);
+    }
+
+    /**
+     * 创建固定大小、无界队列的线程池，线程名为"namePrefix-序号"
+     *
+     * @author shiloh
+     * @date 2026/10/18 17:20
+     */
+    public static InstrumentedThreadPoolExecutor newFixedThreadPool(String namePrefix, int threads) {
+        return new InstrumentedThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), namedThreadFactory(namePrefix), new AbortPolicy());
+    }
+
+    public static ThreadFactory namedThreadFactory(String namePrefix) {
+        return new ThreadFactory() {
+            private final AtomicLong counter = new AtomicLong(1);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, namePrefix + "-" + counter.getAndIncrement());
+            }
+        };
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimedTask(command));
+    }
+
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        super.setRejectedExecutionHandler((task, executor) -> {
+            rejected.increment();
+            // 交给原始的拒绝策略处理时还原为调用方提交的任务
+            handler.rejectedExecution(task instanceof TimedTask ? ((TimedTask) task).unwrap() : task, executor);
+        });
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        final var now = System.nanoTime();
+        if (r instanceof TimedTask) {
+            queueWait.record(now - ((TimedTask) r).submitNanos);
+        }
+        startNanos.get()[0] = now;
+        super.beforeExecute(t, r);
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        execution.record(System.nanoTime() - startNanos.get()[0]);
+        if (t != null) {
+            failed.increment();
+        }
+    }
+
+    public ThreadPoolMetrics metrics() {
+        return new ThreadPoolMetrics(getPoolSize(), getActiveCount(), getQueue().size(), getCompletedTaskCount(),
+                rejected.sum(), failed.sum(), queueWait, execution);
+    }
+
+    /**
+     * 记录了提交时间的任务
+     */
+    static final class TimedTask implements Runnable {
+
+        private final Runnable delegate;
+
+        private final long submitNanos = System.nanoTime();
+
+        TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        Runnable unwrap() {
+            return delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+}
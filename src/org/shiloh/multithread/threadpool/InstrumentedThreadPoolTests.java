@@ -0,0 +1,42 @@
+package org.shiloh.multithread.threadpool;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 17:30
+ * @description 带统计功能的线程池测试
+ * 与{@link ThreadPoolTests}类似，向4个线程的线程池提交任务，每个任务随机执行10 ~ 50ms，
+ * 任务数远多于线程数，可以从统计数据中看到排队等待时间明显大于执行时间，说明线程数不够用。
+ * 最后检查直方图能记录long范围内最大的值。
+ */
+public class InstrumentedThreadPoolTests {
+
+    public static void main(String[] args) throws InterruptedException {
+        final var threadPool = InstrumentedThreadPoolExecutor.newFixedThreadPool("InstrumentedPool", 4);
+        for (int i = 0; i < 100; i++) {
+            threadPool.execute(() -> {
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(10, 50));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        Thread.sleep(200);
+        System.out.println("running: " + threadPool.metrics());
+        threadPool.shutdown();
+        threadPool.awaitTermination(10, TimeUnit.SECONDS);
+        System.out.println("finished: " + threadPool.metrics());
+
+        // 直方图的边界值：最大的long值落在最后一个桶，不能越界
+        final var histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(1L << 62);
+        histogram.record(Long.MAX_VALUE);
+        System.out.println("boundary: max = " + (histogram.max() == Long.MAX_VALUE) + ", p100 > 2^62 = "
+                + (histogram.percentile(100) > 1L << 62) + ", p50 >= 2^62 = "
+                + (histogram.percentile(50) >= 1L << 62));
+    }
+}
@@ -0,0 +1,137 @@
+package org.shiloh.multithread.threadpool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 16:55
+ * @description 无锁的延迟直方图，桶的划分方式与HdrHistogram相同（对数 + 线性）
+ * 把非负的long值（纳秒）按2的幂分成若干段，每段再线性地平均分成{@link #SUB_BUCKETS}个桶：
+ * [0, 32)每个值一个桶，[32, 64)每个值一个桶，[64, 128)每2个值一个桶，[128, 256)每4个值一个桶……
+ * 这样无论数值大小，桶的宽度都不超过该值的1/32（约3%的相对误差），而全部桶加起来只有{@link #BUCKETS}个。
+ * <p>
+ * 记录一个值只需要计算下标（几次位运算）再对桶做一次原子加法，不加锁、不分配对象，可以放在任务执行的热路径上。
+ * 读取分位数时遍历所有桶，读到的是一个近似的快照。
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * [0, 32)占1段，之后最高位为5 ~ 62的值各占1段，共1 + 58 = 59段，
+     * 最大的值Long.MAX_VALUE落在最后一段的最后一个桶
+     */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.getAndIncrement(indexOf(value));
+        count.increment();
+        sum.add(value);
+        // 大部分情况下新值不会超过最大值，先读一次避免无意义的CAS
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * 所有记录值的总和，两次读取的差值除以次数的差值就是这段时间内的平均值，不需要reset()
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        final var count = count();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * @param percentile 百分位，例如99表示P99
+     * @return 对应分位所在桶的中间值，没有记录时返回0
+     * @author shiloh
+     * @date 2026/10/18 17:05
+     */
+    public long percentile(double percentile) {
+        final var counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final var rank = Math.max(1, (long) Math.ceil(total * Math.min(percentile, 100) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(middleOf(i), max());
+            }
+        }
+        return max();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1fus, p50=%dus, p99=%dus, p999=%dus, max=%dus", count(),
+                mean() / 1000, micros(percentile(50)), micros(percentile(99)), micros(percentile(99.9)),
+                micros(max()));
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final var exponent = 63 - Long.numberOfLeadingZeros(value);
+        final var shift = exponent - SUB_BUCKET_BITS;
+        final var subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long middleOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final var shift = index / SUB_BUCKETS - 1;
+        final var lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,92 @@
+package org.shiloh.multithread.threadpool;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 17:10
+ * @description {@link InstrumentedThreadPoolExecutor}在某一时刻的统计数据
+ */
+public class ThreadPoolMetrics {
+
+    private final int poolSize;
+
+    private final int activeCount;
+
+    private final int queueSize;
+
+    private final long completedCount;
+
+    private final long rejectedCount;
+
+    private final long failedCount;
+
+    private final LatencyHistogram queueWait;
+
+    private final LatencyHistogram execution;
+
+    ThreadPoolMetrics(int poolSize, int activeCount, int queueSize, long completedCount, long rejectedCount,
+                      long failedCount, LatencyHistogram queueWait, LatencyHistogram execution) {
+        this.poolSize = poolSize;
+        this.activeCount = activeCount;
+        this.queueSize = queueSize;
+        this.completedCount = completedCount;
+        this.rejectedCount = rejectedCount;
+        this.failedCount = failedCount;
+        this.queueWait = queueWait;
+        this.execution = execution;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * 执行时抛出异常的任务数量，通过submit()提交的任务异常被封装在Future中，不计入这里
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * 任务从提交到开始执行的等待时间（纳秒）
+     */
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * 任务的执行时间（纳秒）
+     */
+    public LatencyHistogram getExecution() {
+        return execution;
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadPoolMetrics{" +
+                "poolSize=" + poolSize +
+                ", activeCount=" + activeCount +
+                ", queueSize=" + queueSize +
+                ", completedCount=" + completedCount +
+                ", rejectedCount=" + rejectedCount +
+                ", failedCount=" + failedCount +
+                ", queueWait=[" + queueWait +
+                "], execution=[" + execution +
+                "]}";
+    }
+}
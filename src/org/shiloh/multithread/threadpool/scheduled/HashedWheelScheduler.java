@@ -0,0 +1,619 @@
+package org.shiloh.multithread.threadpool.scheduled;
+
+import org.shiloh.multithread.threadpool.InstrumentedThreadPoolExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 21:30
+ * @description 基于分层时间轮（hierarchical hashed timing wheel）的定时任务调度器
+ * {@link Executors#newScheduledThreadPool(int)}内部的DelayedWorkQueue是一个由一把锁保护的二叉堆，
+ * 添加、取消任务都是O(log n)，并且所有提交任务、取消任务、取出到期任务的线程都在争抢这把锁。
+ * 当每秒要提交几十万个短超时（绝大多数最终会被取消）时，这把锁会成为瓶颈。
+ * <p>
+ * 时间轮把时间切分成固定长度的刻度（tick），每一层轮子有2的幂个槽位（bucket），每个槽位是一个双向链表：
+ * 第0层的一个槽位代表1个刻度，第1层的一个槽位代表一整圈第0层，以此类推。
+ * 任务按到期刻度放入对应层级的槽位，时钟线程每走一个刻度就执行第0层对应槽位中的任务，
+ * 每当低层转完一圈，就把高一层当前槽位中的任务重新分配（cascade）到低层。
+ * <p>
+ * 1.提交任务：把任务放入无锁队列{@link #pendingTimeouts}，由时钟线程在下一个刻度放入槽位，提交线程之间不竞争锁，O(1)；
+ * 2.取消任务：把任务放入无锁队列{@link #cancelledTimeouts}，由时钟线程从链表中摘除，O(1)；
+ * 3.精度：任务在到期时间之后的第一个刻度执行，不会提前执行，最多延后1个刻度（加上时钟线程的调度延迟），
+ * 刻度越小精度越高，但空转的开销也越大，一般超时检测使用1ms~10ms的刻度即可；
+ * 4.到期的任务交给任务线程池执行，时钟线程本身不执行任务，任务执行时间再长也不会拖慢时钟。
+ * <p>
+ * 默认配置为4层、每层256个槽位、1ms刻度，覆盖2^32ms（约49天），超出范围的任务放入溢出链表，每转完一圈最高层时重新分配。
+ * 没有任何任务时时钟线程会停下来等待，不会空转。
+ * 与{@link java.util.concurrent.ScheduledThreadPoolExecutor}一致：shutdown()之后已提交的一次性任务仍会按时执行，
+ * 周期任务会被取消。
+ */
+public class HashedWheelScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private static final int ST_RUNNING = 0;
+
+    private static final int ST_SHUTDOWN = 1;
+
+    private static final int ST_STOP = 2;
+
+    /**
+     * 每个刻度最多从提交队列中取出的任务数量，避免提交速度过快时时钟线程一直在搬运任务而耽误了执行到期任务
+     */
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    /**
+     * 防止到期时间溢出，最长约73年
+     */
+    private static final long MAX_DELAY_NANOS = Long.MAX_VALUE >>> 2;
+
+    private final long tickNanos;
+
+    /**
+     * 每层槽位数量 = 2^wheelBits
+     */
+    private final int wheelBits;
+
+    private final int mask;
+
+    private final Bucket[][] wheels;
+
+    /**
+     * 超出所有层级范围的任务
+     */
+    private final Bucket overflow = new Bucket();
+
+    private final Queue<WheelTimeout<?>> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final Queue<WheelTimeout<?>> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final ExecutorService taskExecutor;
+
+    private final Thread worker;
+
+    private final long startNanos;
+
+    private volatile int state = ST_RUNNING;
+
+    /**
+     * 时钟线程没有任务可等待、已经停下来时为true，提交任务的线程需要唤醒它
+     */
+    private volatile boolean idle;
+
+    /**
+     * 以下字段只由时钟线程读写
+     * 已经处理过的最后一个刻度
+     */
+    private long tick;
+
+    /**
+     * 槽位中的任务数量（包括溢出链表）
+     */
+    private long count;
+
+    private boolean periodicSwept;
+
+    /**
+     * 默认1ms刻度，4层、每层256个槽位
+     *
+     * @param threads 执行到期任务的线程数量
+     */
+    public HashedWheelScheduler(int threads) {
+        this(1, TimeUnit.MILLISECONDS, 256, 4,
+                Executors.newFixedThreadPool(threads, InstrumentedThreadPoolExecutor.namedThreadFactory("wheel-task")));
+    }
+
+    /**
+     * @param tickDuration  刻度长度
+     * @param ticksPerWheel 每层槽位数量，会向上取整到2的幂
+     * @param levels        层数，第n层覆盖ticksPerWheel^(n+1)个刻度
+     * @param taskExecutor  执行到期任务的线程池，调度器关闭时会一并关闭
+     */
+    public HashedWheelScheduler(long tickDuration, TimeUnit unit, int ticksPerWheel, int levels,
+                                ExecutorService taskExecutor) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive: " + tickDuration);
+        }
+        if (ticksPerWheel < 2) {
+            throw new IllegalArgumentException("ticksPerWheel must be at least 2: " + ticksPerWheel);
+        }
+        final var size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.wheelBits = Integer.numberOfTrailingZeros(size);
+        if (levels <= 0 || levels * wheelBits > 62) {
+            throw new IllegalArgumentException("levels must be in [1, " + 62 / wheelBits + "]: " + levels);
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = size - 1;
+        this.wheels = new Bucket[levels][size];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < size; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+        this.taskExecutor = Objects.requireNonNull(taskExecutor);
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::runWorker, "HashedWheelScheduler");
+        this.worker.start();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        Objects.requireNonNull(command);
+        return delayedExecute(new WheelTimeout<Void>(command, null, triggerTime(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        Objects.requireNonNull(callable);
+        return delayedExecute(new WheelTimeout<>(callable, triggerTime(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        Objects.requireNonNull(command);
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        return delayedExecute(new WheelTimeout<Void>(command, null, triggerTime(initialDelay, unit),
+                unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        Objects.requireNonNull(command);
+        if (delay <= 0) {
+            throw new IllegalArgumentException("delay must be positive: " + delay);
+        }
+        // 与ScheduledThreadPoolExecutor一样，用负数的周期表示FixedDelay
+        return delayedExecute(new WheelTimeout<Void>(command, null, triggerTime(initialDelay, unit),
+                -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (state == ST_RUNNING) {
+            state = ST_SHUTDOWN;
+        }
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * 停止时钟线程并中断正在执行的任务
+     *
+     * @return 还没有执行的任务，包括还没到期的任务和已到期但还在任务线程池队列中的任务
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        synchronized (this) {
+            state = ST_STOP;
+        }
+        LockSupport.unpark(worker);
+        var interrupted = false;
+        while (worker.isAlive()) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // 时钟线程已经退出，可以安全地访问槽位
+        final var remaining = new ArrayList<Runnable>();
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                bucket.drainTo(remaining);
+            }
+        }
+        overflow.drainTo(remaining);
+        WheelTimeout<?> timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            remaining.add(timeout);
+        }
+        remaining.removeIf(task -> ((WheelTimeout<?>) task).isCancelled());
+        remaining.addAll(taskExecutor.shutdownNow());
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return remaining;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state != ST_RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return !worker.isAlive() && taskExecutor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        final var deadline = System.nanoTime() + unit.toNanos(timeout);
+        TimeUnit.NANOSECONDS.timedJoin(worker, Math.max(deadline - System.nanoTime(), 0));
+        if (worker.isAlive()) {
+            return false;
+        }
+        return taskExecutor.awaitTermination(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+    }
+
+    private static long triggerTime(long delay, TimeUnit unit) {
+        return System.nanoTime() + Math.min(Math.max(unit.toNanos(delay), 0), MAX_DELAY_NANOS);
+    }
+
+    private <V> WheelTimeout<V> delayedExecute(WheelTimeout<V> timeout) {
+        if (state != ST_RUNNING) {
+            throw new RejectedExecutionException("scheduler has been shut down");
+        }
+        if (timeout.deadlineNanos - System.nanoTime() <= 0) {
+            // 已经到期的任务不经过时间轮，直接交给任务线程池
+            taskExecutor.execute(timeout);
+            return timeout;
+        }
+        pendingTimeouts.offer(timeout);
+        // 放入队列的同时调度器被关闭，时钟线程可能已经退出，任务不会再被取出
+        if (state != ST_RUNNING && pendingTimeouts.remove(timeout)) {
+            throw new RejectedExecutionException("scheduler has been shut down");
+        }
+        if (idle) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    /**
+     * 周期任务执行完成后重新放入时间轮，调度器已关闭时取消任务
+     */
+    private void reschedule(WheelTimeout<?> timeout) {
+        try {
+            delayedExecute(timeout);
+        } catch (RejectedExecutionException e) {
+            timeout.cancel(false);
+        }
+    }
+
+    private void runWorker() {
+        try {
+            while (state != ST_STOP) {
+                processCancelled();
+                if (state == ST_SHUTDOWN && !periodicSwept) {
+                    cancelPeriodic();
+                }
+                if (count == 0 && pendingTimeouts.isEmpty()) {
+                    if (state != ST_RUNNING) {
+                        break;
+                    }
+                    idle = true;
+                    // 设置idle之后再检查一次，避免错过在检查和设置之间提交的任务
+                    if (pendingTimeouts.isEmpty() && state == ST_RUNNING) {
+                        LockSupport.park(this);
+                    }
+                    idle = false;
+                    // 时间轮是空的，直接跳到当前刻度，不必逐个刻度补齐空闲期间错过的刻度
+                    tick = currentTick();
+                    continue;
+                }
+                if (!waitForNextTick()) {
+                    break;
+                }
+                tick++;
+                transferPending();
+                processCancelled();
+                advance();
+            }
+        } finally {
+            taskExecutor.shutdown();
+        }
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - startNanos) / tickNanos;
+    }
+
+    /**
+     * @return 调度器被shutdownNow()时返回false
+     */
+    private boolean waitForNextTick() {
+        final var deadline = startNanos + (tick + 1) * tickNanos;
+        while (true) {
+            if (state == ST_STOP) {
+                return false;
+            }
+            final var sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            LockSupport.parkNanos(this, sleepNanos);
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            final var timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            // 向上取整，保证任务不会提前执行
+            final var elapsed = timeout.deadlineNanos - startNanos;
+            timeout.deadlineTick = elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos;
+            place(timeout);
+        }
+    }
+
+    private void processCancelled() {
+        WheelTimeout<?> timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            // 还在提交队列中或已经交给任务线程池的任务不在槽位中，不需要处理
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+                count--;
+            }
+        }
+    }
+
+    /**
+     * 根据到期刻度与当前刻度最高的不同位所在的层级选择槽位：
+     * 两者只有第0层的位不同，说明在第0层的这一圈内到期，放入第0层；
+     * 最高的不同位在第n层，说明要等第n层转到到期刻度对应的槽位时，才会被重新分配到更低的层级。
+     */
+    private void place(WheelTimeout<?> timeout) {
+        final var deadlineTick = timeout.deadlineTick;
+        if (deadlineTick <= tick) {
+            fire(timeout);
+            return;
+        }
+        final var diff = deadlineTick ^ tick;
+        var level = 0;
+        while (level < wheels.length && diff >>> ((level + 1) * wheelBits) != 0) {
+            level++;
+        }
+        final var bucket = level == wheels.length
+                ? overflow
+                : wheels[level][(int) (deadlineTick >>> (level * wheelBits)) & mask];
+        bucket.add(timeout);
+        count++;
+    }
+
+    /**
+     * 每个刻度先从高到低重新分配各层转到的槽位，再执行第0层当前槽位中的任务
+     * 必须从高到低：高层的任务可能被重新分配到低层当前的槽位，低层随后再处理
+     */
+    private void advance() {
+        final var levels = wheels.length;
+        if ((tick & ((1L << (levels * wheelBits)) - 1)) == 0) {
+            cascade(overflow);
+        }
+        for (int level = levels - 1; level > 0; level--) {
+            if ((tick & ((1L << (level * wheelBits)) - 1)) == 0) {
+                cascade(wheels[level][(int) (tick >>> (level * wheelBits)) & mask]);
+            }
+        }
+        final var bucket = wheels[0][(int) tick & mask];
+        WheelTimeout<?> timeout;
+        while ((timeout = bucket.poll()) != null) {
+            count--;
+            fire(timeout);
+        }
+    }
+
+    /**
+     * 先把整个链表摘下来再逐个重新分配：溢出链表中尚未进入范围的任务会被重新放回溢出链表
+     */
+    private void cascade(Bucket bucket) {
+        var timeout = bucket.detach();
+        while (timeout != null) {
+            final var next = timeout.next;
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+            count--;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void fire(WheelTimeout<?> timeout) {
+        if (timeout.isCancelled()) {
+            return;
+        }
+        if (state != ST_RUNNING && timeout.isPeriodic()) {
+            timeout.cancel(false);
+            return;
+        }
+        try {
+            taskExecutor.execute(timeout);
+        } catch (RejectedExecutionException e) {
+            timeout.cancel(false);
+        }
+    }
+
+    /**
+     * shutdown()之后只执行一次，取消时间轮中所有的周期任务，剩下的一次性任务执行完后时钟线程退出
+     */
+    private void cancelPeriodic() {
+        periodicSwept = true;
+        final var tasks = new ArrayList<Runnable>();
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                bucket.drainTo(tasks);
+            }
+        }
+        overflow.drainTo(tasks);
+        count -= tasks.size();
+        for (Runnable task : tasks) {
+            final var timeout = (WheelTimeout<?>) task;
+            if (timeout.isPeriodic()) {
+                timeout.cancel(false);
+            } else {
+                place(timeout);
+            }
+        }
+    }
+
+    /**
+     * 槽位：以任务自身为节点的双向链表，摘除任意节点都是O(1)
+     * 只由时钟线程访问，不需要同步
+     */
+    private static final class Bucket {
+
+        private WheelTimeout<?> head;
+
+        private WheelTimeout<?> tail;
+
+        void add(WheelTimeout<?> timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(WheelTimeout<?> timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        WheelTimeout<?> poll() {
+            final var timeout = head;
+            if (timeout != null) {
+                remove(timeout);
+            }
+            return timeout;
+        }
+
+        /**
+         * 清空槽位并返回原链表的头节点，节点之间的链接保持不变
+         */
+        WheelTimeout<?> detach() {
+            final var first = head;
+            head = null;
+            tail = null;
+            return first;
+        }
+
+        void drainTo(List<Runnable> target) {
+            WheelTimeout<?> timeout;
+            while ((timeout = poll()) != null) {
+                target.add(timeout);
+            }
+        }
+    }
+
+    /**
+     * 定时任务，同时也是槽位链表的节点
+     */
+    private final class WheelTimeout<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+        /**
+         * 周期任务每次执行完成后由任务线程更新，再通过提交队列交给时钟线程
+         */
+        private volatile long deadlineNanos;
+
+        /**
+         * 0表示一次性任务，正数表示FixedRate，负数表示FixedDelay
+         */
+        private final long period;
+
+        /**
+         * 以下字段只由时钟线程读写
+         */
+        private long deadlineTick;
+
+        private Bucket bucket;
+
+        private WheelTimeout<?> prev;
+
+        private WheelTimeout<?> next;
+
+        WheelTimeout(Runnable runnable, V result, long deadlineNanos, long period) {
+            super(runnable, result);
+            this.deadlineNanos = deadlineNanos;
+            this.period = period;
+        }
+
+        WheelTimeout(Callable<V> callable, long deadlineNanos) {
+            super(callable);
+            this.deadlineNanos = deadlineNanos;
+            this.period = 0;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            return Long.signum(getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        /**
+         * 取消任务时只是放入取消队列，由时钟线程把它从槽位中摘除，取消线程不需要获取任何锁
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final var cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                cancelledTimeouts.offer(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+                return;
+            }
+            // 与ScheduledThreadPoolExecutor一样，周期任务抛出异常后不再继续执行
+            if (runAndReset()) {
+                deadlineNanos = period > 0 ? deadlineNanos + period : System.nanoTime() - period;
+                reschedule(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.shiloh.multithread.threadpool.scheduled;
+
+import java.util.ArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 22:10
+ * @description 时间轮调度器测试
+ * 1.提交20万个0~3秒的随机超时，取消其中一半，检查剩下的任务全部执行、没有提前执行，并统计最大延后时间；
+ * 2.与{@link ScheduledThreadPoolTests}一样以FixedRate每秒执行一次任务。
+ */
+public class HashedWheelSchedulerTests {
+
+    public static void main(String[] args) throws InterruptedException {
+        final var scheduler = new HashedWheelScheduler(4);
+        final var total = 200_000;
+        final var fired = new AtomicInteger();
+        final var early = new AtomicInteger();
+        final var maxLateNanos = new AtomicLong();
+        final var futures = new ArrayList<ScheduledFuture<?>>(total);
+        for (int i = 0; i < total; i++) {
+            final var delayMillis = ThreadLocalRandom.current().nextLong(3000);
+            final var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            futures.add(scheduler.schedule(() -> {
+                final var late = System.nanoTime() - deadline;
+                if (late < 0) {
+                    early.incrementAndGet();
+                }
+                maxLateNanos.accumulateAndGet(late, Math::max);
+                fired.incrementAndGet();
+            }, delayMillis, TimeUnit.MILLISECONDS));
+        }
+        var cancelled = 0;
+        for (int i = 0; i < total; i += 2) {
+            if (futures.get(i).cancel(false)) {
+                cancelled++;
+            }
+        }
+        final var fixedRate = scheduler.scheduleAtFixedRate(
+                () -> System.out.println("fixed rate task " + System.currentTimeMillis()), 0, 1, TimeUnit.SECONDS);
+        Thread.sleep(3500);
+        fixedRate.cancel(false);
+        System.out.printf("scheduled = %d, cancelled = %d, fired = %d, early = %d, max late = %dms%n",
+                total, cancelled, fired.get(), early.get(), TimeUnit.NANOSECONDS.toMillis(maxLateNanos.get()));
+        scheduler.shutdown();
+        System.out.println("terminated = " + scheduler.awaitTermination(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,29 @@
+package org.shiloh.multithread.threadpool.scheduled;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 23:00
+ * @description 周期任务执行时间超过周期（或者因为线程池繁忙而延迟开始）时，如何处理错过的刻度
+ * 假设任务每秒执行一次，第0秒开始的一次执行了2.5秒，错过了第1秒和第2秒两个刻度：
+ */
+public enum OverrunPolicy {
+
+    /**
+     * 补跑：错过的刻度依次立即执行（第2.5秒连续执行2次），之后回到原来的节奏
+     * 与{@link java.util.concurrent.ScheduledExecutorService#scheduleAtFixedRate}的行为一致，
+     * 适合每个刻度都不能少的任务，例如按秒汇总统计数据
+     */
+    CATCH_UP,
+
+    /**
+     * 合并：错过的刻度合并成1次立即执行（第2.5秒执行1次），之后回到原来的节奏
+     * 适合只关心最新状态的任务，例如刷新缓存、刷新证券价格
+     */
+    COALESCE,
+
+    /**
+     * 跳过：丢弃错过的刻度，等到下一个刻度（第3秒）再执行
+     * 适合执行太频繁反而有害的任务，例如心跳、探活
+     */
+    SKIP
+}
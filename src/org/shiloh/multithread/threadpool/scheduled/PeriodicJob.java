@@ -0,0 +1,193 @@
+package org.shiloh.multithread.threadpool.scheduled;
+
+import org.shiloh.multithread.threadpool.LatencyHistogram;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 23:15
+ * @description 由{@link PeriodicJobRunner}创建的周期任务
+ * 每次执行结束后才提交下一次执行（一次性的schedule()），所以同一个任务的多次执行不会并发，
+ * 并且可以在每次执行结束时根据{@link OverrunPolicy}决定下一次执行哪个刻度。
+ * 第n个刻度的计划执行时间固定为 开始时间 + n * 周期，不会因为某次执行延迟而整体后移。
+ */
+public class PeriodicJob {
+
+    private final String name;
+
+    private final Runnable task;
+
+    private final long periodNanos;
+
+    private final OverrunPolicy policy;
+
+    private final PeriodicJobListener listener;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final PeriodicJobRunner runner;
+
+    /**
+     * 第0个刻度的计划执行时间
+     */
+    private final long baseNanos;
+
+    /**
+     * 下一次执行的刻度，只在执行任务的线程中读写，
+     * 多次执行之间通过schedule()建立happens-before关系，不需要volatile
+     */
+    private long tickIndex;
+
+    private volatile ScheduledFuture<?> future;
+
+    private volatile boolean cancelled;
+
+    private volatile Throwable lastFailure;
+
+    private volatile long driftNanos;
+
+    private final LongAdder runs = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder overruns = new LongAdder();
+
+    private final LongAdder skippedTicks = new LongAdder();
+
+    private final LatencyHistogram startDelay = new LatencyHistogram();
+
+    private final LatencyHistogram execution = new LatencyHistogram();
+
+    PeriodicJob(String name, Runnable task, long initialDelayNanos, long periodNanos, OverrunPolicy policy,
+                PeriodicJobListener listener, ScheduledExecutorService scheduler, PeriodicJobRunner runner) {
+        this.name = name;
+        this.task = task;
+        this.periodNanos = periodNanos;
+        this.policy = policy;
+        this.listener = listener;
+        this.scheduler = scheduler;
+        this.runner = runner;
+        this.baseNanos = System.nanoTime() + initialDelayNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public OverrunPolicy getPolicy() {
+        return policy;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 取消后续的执行，正在进行的执行不会被中断
+     */
+    public void cancel() {
+        cancelled = true;
+        final var current = future;
+        if (current != null) {
+            current.cancel(false);
+        }
+        runner.remove(this);
+    }
+
+    public PeriodicJobMetrics metrics() {
+        return new PeriodicJobMetrics(runs.sum(), failures.sum(), overruns.sum(), skippedTicks.sum(), driftNanos,
+                lastFailure, startDelay, execution);
+    }
+
+    void start() {
+        scheduleTick(0);
+    }
+
+    private void scheduleTick(long index) {
+        tickIndex = index;
+        final var delay = baseNanos + index * periodNanos - System.nanoTime();
+        try {
+            future = scheduler.schedule(this::runOnce, Math.max(delay, 0), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // 调度线程池已关闭
+            cancel();
+            return;
+        }
+        // 提交的同时任务被取消了，cancel()可能没有看到新的future
+        if (cancelled) {
+            future.cancel(false);
+        }
+    }
+
+    private void runOnce() {
+        if (cancelled) {
+            return;
+        }
+        final var start = System.nanoTime();
+        driftNanos = start - (baseNanos + tickIndex * periodNanos);
+        startDelay.record(driftNanos);
+        try {
+            task.run();
+        } catch (Exception e) {
+            // scheduleAtFixedRate()遇到异常会静默地停止后续所有执行，这里只记录下来，不影响下一次执行
+            failures.increment();
+            lastFailure = e;
+            notifyListener(() -> listener.onFailure(this, e));
+        } catch (Error e) {
+            // Error不应该被当作一次普通的失败继续调度，记录并通知后结束这个任务，再抛给调度线程池
+            failures.increment();
+            lastFailure = e;
+            runs.increment();
+            cancel();
+            notifyListener(() -> listener.onFailure(this, e));
+            throw e;
+        }
+        final var end = System.nanoTime();
+        execution.record(end - start);
+        runs.increment();
+
+        // 执行结束时已经到了（或过了）几个后续刻度
+        final var missed = (end - baseNanos) / periodNanos - tickIndex;
+        var next = tickIndex + 1;
+        if (missed > 0) {
+            final long skipped;
+            switch (policy) {
+                case SKIP:
+                    skipped = missed;
+                    break;
+                case COALESCE:
+                    skipped = missed - 1;
+                    break;
+                default:
+                    skipped = 0;
+            }
+            next += skipped;
+            overruns.increment();
+            skippedTicks.add(skipped);
+            notifyListener(() -> listener.onOverrun(this, missed, skipped));
+        }
+        if (!cancelled) {
+            scheduleTick(next);
+        }
+    }
+
+    /**
+     * 回调抛出的异常同样不能影响调度
+     */
+    private static void notifyListener(Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PeriodicJob{name='" + name + "', policy=" + policy + ", cancelled=" + cancelled + "}";
+    }
+}
@@ -0,0 +1,27 @@
+package org.shiloh.multithread.threadpool.scheduled;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 23:05
+ * @description 周期任务的事件回调，在执行任务的线程中同步调用，不要在这里做耗时操作
+ */
+public interface PeriodicJobListener {
+
+    PeriodicJobListener NONE = new PeriodicJobListener() {
+    };
+
+    /**
+     * 任务本次执行抛出了异常，抛出的是Exception时后续的执行不受影响，抛出的是Error时任务已经被取消
+     */
+    default void onFailure(PeriodicJob job, Throwable e) {
+    }
+
+    /**
+     * 任务本次执行结束时已经错过了后续的刻度
+     *
+     * @param missedTicks  错过的刻度数量
+     * @param skippedTicks 按{@link OverrunPolicy}被丢弃、不会再执行的刻度数量
+     */
+    default void onOverrun(PeriodicJob job, long missedTicks, long skippedTicks) {
+    }
+}
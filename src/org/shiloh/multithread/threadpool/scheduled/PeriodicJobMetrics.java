@@ -0,0 +1,104 @@
+package org.shiloh.multithread.threadpool.scheduled;
+
+import org.shiloh.multithread.threadpool.LatencyHistogram;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 23:10
+ * @description {@link PeriodicJob}在某一时刻的统计数据
+ */
+public class PeriodicJobMetrics {
+
+    private final long runCount;
+
+    private final long failureCount;
+
+    private final long overrunCount;
+
+    private final long skippedTicks;
+
+    private final long driftNanos;
+
+    private final Throwable lastFailure;
+
+    private final LatencyHistogram startDelay;
+
+    private final LatencyHistogram execution;
+
+    PeriodicJobMetrics(long runCount, long failureCount, long overrunCount, long skippedTicks, long driftNanos,
+                       Throwable lastFailure, LatencyHistogram startDelay, LatencyHistogram execution) {
+        this.runCount = runCount;
+        this.failureCount = failureCount;
+        this.overrunCount = overrunCount;
+        this.skippedTicks = skippedTicks;
+        this.driftNanos = driftNanos;
+        this.lastFailure = lastFailure;
+        this.startDelay = startDelay;
+        this.execution = execution;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * 执行结束时错过了后续刻度的次数
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * 按{@link OverrunPolicy}被丢弃的刻度总数
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /**
+     * 最近一次执行的实际开始时间比计划时间晚了多少纳秒
+     * 补跑（{@link OverrunPolicy#CATCH_UP}）时这个值会持续增大，说明任务跟不上周期
+     */
+    public long getDriftNanos() {
+        return driftNanos;
+    }
+
+    /**
+     * 最近一次执行抛出的异常，没有失败过时为null
+     */
+    public Throwable getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * 每次执行的实际开始时间与计划时间的差值（纳秒），即抖动（jitter）
+     */
+    public LatencyHistogram getStartDelay() {
+        return startDelay;
+    }
+
+    /**
+     * 每次执行的耗时（纳秒）
+     */
+    public LatencyHistogram getExecution() {
+        return execution;
+    }
+
+    @Override
+    public String toString() {
+        return "PeriodicJobMetrics{" +
+                "runCount=" + runCount +
+                ", failureCount=" + failureCount +
+                ", overrunCount=" + overrunCount +
+                ", skippedTicks=" + skippedTicks +
+                ", driftNanos=" + driftNanos +
+                ", lastFailure=" + lastFailure +
+                ", startDelay=[" + startDelay +
+                "], execution=[" + execution +
+                "]}";
+    }
+}
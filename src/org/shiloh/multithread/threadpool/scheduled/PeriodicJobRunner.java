@@ -0,0 +1,85 @@
+package org.shiloh.multithread.threadpool.scheduled;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 23:30
+ * @description 隔离失败的周期任务执行器
+ * {@link ScheduledThreadPoolTests}中ScheduledTask的注释中提到：使用scheduleAtFixedRate()时任务一旦抛出异常，后续所有执行都会被静默地取消，
+ * 只有调用返回的ScheduledFuture.get()才能看到异常；执行时间超过周期时后续执行会顺延，但没有任何地方能看到发生了顺延。
+ * <p>
+ * PeriodicJobRunner基于任意一个{@link ScheduledExecutorService}（例如{@link java.util.concurrent.Executors#newScheduledThreadPool(int)}
+ * 或{@link HashedWheelScheduler}）：
+ * 1.捕获并统计每次执行抛出的Exception，任务继续按周期执行；
+ * Error（OutOfMemoryError、StackOverflowError等）说明JVM可能已经处于不可靠的状态，同样记录并通知，但任务随之结束；
+ * 2.检测执行超时（错过了后续刻度），按{@link OverrunPolicy}补跑、合并或跳过错过的刻度，并通过{@link PeriodicJobListener}报告；
+ * 3.记录每个任务的执行耗时、开始时间相对计划时间的抖动和漂移，见{@link PeriodicJobMetrics}。
+ */
+public class PeriodicJobRunner {
+
+    private final ScheduledExecutorService scheduler;
+
+    private final PeriodicJobListener listener;
+
+    private final ConcurrentHashMap<String, PeriodicJob> jobs = new ConcurrentHashMap<>();
+
+    public PeriodicJobRunner(ScheduledExecutorService scheduler) {
+        this(scheduler, PeriodicJobListener.NONE);
+    }
+
+    public PeriodicJobRunner(ScheduledExecutorService scheduler, PeriodicJobListener listener) {
+        this.scheduler = Objects.requireNonNull(scheduler);
+        this.listener = Objects.requireNonNull(listener);
+    }
+
+    /**
+     * 按固定频率执行任务
+     *
+     * @param name 任务名称，不能与正在运行的任务重复
+     * @author shiloh
+     * @date 2026/10/18 23:35
+     */
+    public PeriodicJob scheduleAtFixedRate(String name, Runnable task, long initialDelay, long period, TimeUnit unit,
+                                           OverrunPolicy policy) {
+        Objects.requireNonNull(task);
+        Objects.requireNonNull(policy);
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        final var job = new PeriodicJob(name, task, unit.toNanos(Math.max(initialDelay, 0)), unit.toNanos(period),
+                policy, listener, scheduler, this);
+        if (jobs.putIfAbsent(name, job) != null) {
+            throw new IllegalArgumentException("job already exists: " + name);
+        }
+        job.start();
+        return job;
+    }
+
+    public PeriodicJob getJob(String name) {
+        return jobs.get(name);
+    }
+
+    public Collection<PeriodicJob> getJobs() {
+        return List.copyOf(jobs.values());
+    }
+
+    /**
+     * 取消所有任务，调度线程池由调用方自行关闭
+     */
+    public void cancelAll() {
+        for (PeriodicJob job : new ArrayList<>(jobs.values())) {
+            job.cancel();
+        }
+    }
+
+    void remove(PeriodicJob job) {
+        jobs.remove(job.getName(), job);
+    }
+}
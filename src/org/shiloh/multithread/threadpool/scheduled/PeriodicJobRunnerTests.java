@@ -0,0 +1,83 @@
+package org.shiloh.multithread.threadpool.scheduled;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 23:45
+ * @description 周期任务执行器测试
+ * 1.与{@link ScheduledThreadPoolTests}中的ScheduledTask一样每次都抛出RuntimeException的任务，在PeriodicJobRunner中会继续执行，
+ * 而第2次执行时抛出Error的任务会被取消，不再执行；
+ * 2.每100ms执行一次、但每3次中有1次要执行250ms的任务，分别使用三种{@link OverrunPolicy}，对比执行次数和丢弃的刻度数量。
+ */
+public class PeriodicJobRunnerTests {
+
+    public static void main(String[] args) throws InterruptedException {
+        final var scheduledThreadPool = Executors.newScheduledThreadPool(4);
+        final var runner = new PeriodicJobRunner(scheduledThreadPool, new PeriodicJobListener() {
+            @Override
+            public void onFailure(PeriodicJob job, Throwable e) {
+                System.out.println(job.getName() + " failed: " + e.getMessage());
+            }
+
+            @Override
+            public void onOverrun(PeriodicJob job, long missedTicks, long skippedTicks) {
+                System.out.printf("%s overrun: missed %d ticks, skipped %d%n", job.getName(), missedTicks,
+                        skippedTicks);
+            }
+        });
+        runner.scheduleAtFixedRate("failingTask", new FailingTask("failingTask"), 0, 500, TimeUnit.MILLISECONDS,
+                OverrunPolicy.SKIP);
+        final var errorRuns = new AtomicInteger();
+        final var errorTask = runner.scheduleAtFixedRate("errorTask", () -> {
+            if (errorRuns.incrementAndGet() == 2) {
+                throw new AssertionError("发生严重错误啦");
+            }
+        }, 0, 100, TimeUnit.MILLISECONDS, OverrunPolicy.SKIP);
+        for (OverrunPolicy policy : OverrunPolicy.values()) {
+            final var counter = new AtomicInteger();
+            runner.scheduleAtFixedRate("slowTask-" + policy, () -> {
+                if (counter.incrementAndGet() % 3 == 0) {
+                    sleep(250);
+                }
+            }, 0, 100, TimeUnit.MILLISECONDS, policy);
+        }
+        Thread.sleep(2000);
+        final var jobs = runner.getJobs();
+        runner.cancelAll();
+        scheduledThreadPool.shutdown();
+        for (PeriodicJob job : jobs) {
+            System.out.println(job.getName() + ": " + job.metrics());
+        }
+        System.out.println("errorTask cancelled = " + errorTask.isCancelled() + ", runs = " + errorRuns.get()
+                + ", " + errorTask.metrics().getLastFailure());
+    }
+
+    /**
+     * 与ScheduledTask一样，每次执行都抛出RuntimeException
+     */
+    private static class FailingTask implements Runnable {
+
+        private final String taskName;
+
+        FailingTask(String taskName) {
+            this.taskName = taskName;
+        }
+
+        @Override
+        public void run() {
+            System.out.println("start scheduled task: " + taskName);
+            throw new RuntimeException("发生错误啦");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -17,6 +17,8 @@ import java.util.concurrent.TimeUnit;
  * Java标准库还提供了一个java.util.Timer类，这个类也可以定期执行任务，
  * 但是，一个Timer会对应一个Thread，所以，一个Timer只能定期执行一个任务，多个定时任务必须启动多个Timer，
  * 而一个ScheduledThreadPool就可以调度多个定时任务，所以，我们完全可以用ScheduledThreadPool取代旧的Timer。
+ * <p>
+ * ScheduledThreadPool内部用一把锁保护的二叉堆保存任务，需要大量提交、取消短超时时可以使用{@link HashedWheelScheduler}。
  */
 public class ScheduledThreadPoolTests {
 
@@ -0,0 +1,217 @@
+package org.shiloh.multithread.waitandnotify;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 11:40
+ * @description 基于环形数组的有界多生产者多消费者（MPMC）无锁任务队列
+ * {@link TaskQueue}使用synchronized + LinkedList实现，每放入1个任务都要notifyAll()唤醒所有消费者，
+ * 5个消费者被唤醒后争抢同一个this锁，最终只有1个能拿到任务，其余的又回去wait()，这就是惊群效应。
+ * 另外LinkedList每放入1个元素都要分配1个Node对象。
+ * <p>
+ * RingBufferTaskQueue的实现思路（Dmitry Vyukov的有界MPMC队列）：
+ * 1.容量固定为2的幂，所有槽位（slot）在构造时一次性分配好，放入、取出任务都不会再分配对象；
+ * 2.每个槽位都有一个序号（sequence），初始值等于槽位下标；
+ * 3.生产者读取放入位置pos，如果槽位序号等于pos，说明槽位空闲，通过CAS把放入位置推进到pos + 1占领这个槽位，
+ * 写入任务后把槽位序号设为pos + 1，表示任务已发布；
+ * 4.消费者读取取出位置pos，如果槽位序号等于pos + 1，说明任务已发布，通过CAS把取出位置推进到pos + 1占领这个槽位，
+ * 取出任务后把槽位序号设为pos + 容量，表示下一轮的生产者可以使用这个槽位了。
+ * 生产者之间、消费者之间只在各自的位置变量上CAS竞争，生产者和消费者之间通过槽位序号交接，全程无锁。
+ * <p>
+ * 队列为空或已满时，阻塞版本的方法按照构造时传入的{@link WaitStrategy}等待后重试。
+ *
+ * @param <T> 任务类型，不允许为null
+ */
+public class RingBufferTaskQueue<T> {
+
+    /**
+     * 放入位置和取出位置之间间隔的long数量，避免两者位于同一个缓存行
+     */
+    private static final int PADDING = 16;
+
+    private static final int ENQUEUE = PADDING;
+
+    private static final int DEQUEUE = PADDING * 2;
+
+    private final AtomicReferenceArray<T> buffer;
+
+    private final AtomicLongArray sequences;
+
+    /**
+     * 下标{@link #ENQUEUE}为放入位置，下标{@link #DEQUEUE}为取出位置，其余元素仅用于填充
+     */
+    private final AtomicLongArray positions = new AtomicLongArray(PADDING * 3);
+
+    private final int mask;
+
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * @param capacity     期望的容量，会向上取整到2的幂
+     * @param waitStrategy 队列为空或已满时的等待策略
+     */
+    public RingBufferTaskQueue(int capacity, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("illegal capacity: " + capacity);
+        }
+        final var size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.waitStrategy = Objects.requireNonNull(waitStrategy);
+    }
+
+    public RingBufferTaskQueue(int capacity) {
+        this(capacity, WaitStrategy.PARK);
+    }
+
+    /**
+     * 放入任务，队列已满时按等待策略等待，直到有空闲槽位
+     *
+     * @author shiloh
+     * @date 2026/10/18 11:52
+     */
+    public void addTask(T task) throws InterruptedException {
+        Objects.requireNonNull(task);
+        for (int attempt = 0; !offerTask(task); attempt = nextAttempt(attempt)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            waitStrategy.idle(attempt);
+        }
+    }
+
+    /**
+     * 尝试放入任务，不等待
+     *
+     * @return 队列已满时返回false
+     * @author shiloh
+     * @date 2026/10/18 11:55
+     */
+    public boolean offerTask(T task) {
+        Objects.requireNonNull(task);
+        var pos = positions.get(ENQUEUE);
+        while (true) {
+            final var index = (int) pos & mask;
+            final var diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (positions.compareAndSet(ENQUEUE, pos, pos + 1)) {
+                    buffer.lazySet(index, task);
+                    // 发布任务：消费者看到新的序号后，一定能看到上面写入的任务
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = positions.get(ENQUEUE);
+            } else if (diff < 0) {
+                // 槽位上一轮的任务还没有被取走，队列已满
+                return false;
+            } else {
+                // 槽位已被其他生产者占领，重新读取放入位置
+                pos = positions.get(ENQUEUE);
+            }
+        }
+    }
+
+    /**
+     * 取出任务，队列为空时按等待策略等待，直到有任务可取，语义与{@link TaskQueue#getTask()}一致
+     *
+     * @author shiloh
+     * @date 2026/10/18 12:00
+     */
+    public T getTask() throws InterruptedException {
+        for (int attempt = 0; ; attempt = nextAttempt(attempt)) {
+            final var task = pollTask();
+            if (task != null) {
+                return task;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            waitStrategy.idle(attempt);
+        }
+    }
+
+    /**
+     * 取出任务，最多等待指定的时间
+     *
+     * @return 超时仍没有任务时返回null
+     * @author shiloh
+     * @date 2026/10/18 12:03
+     */
+    public T getTask(long timeout, TimeUnit unit) throws InterruptedException {
+        final var deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; ; attempt = nextAttempt(attempt)) {
+            final var task = pollTask();
+            if (task != null) {
+                return task;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+            waitStrategy.idle(attempt);
+        }
+    }
+
+    /**
+     * 尝试取出任务，不等待
+     *
+     * @return 队列为空时返回null
+     * @author shiloh
+     * @date 2026/10/18 12:05
+     */
+    public T pollTask() {
+        var pos = positions.get(DEQUEUE);
+        while (true) {
+            final var index = (int) pos & mask;
+            final var diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (positions.compareAndSet(DEQUEUE, pos, pos + 1)) {
+                    final var task = buffer.get(index);
+                    buffer.lazySet(index, null);
+                    // 归还槽位给下一轮的生产者
+                    sequences.set(index, pos + mask + 1);
+                    return task;
+                }
+                pos = positions.get(DEQUEUE);
+            } else if (diff < 0) {
+                // 槽位的任务还没有发布，队列为空
+                return null;
+            } else {
+                pos = positions.get(DEQUEUE);
+            }
+        }
+    }
+
+    /**
+     * 当前队列中的任务数，并发修改时只是一个近似值
+     */
+    public int size() {
+        final var size = positions.get(ENQUEUE) - positions.get(DEQUEUE);
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * 等待次数加1，达到Integer.MAX_VALUE后不再增加
+     * 否则长时间空闲（PARK策略下约25天）后溢出为负数，YIELD、PARK策略会退回空转分支占满1个CPU核心
+     *
+     * @author shiloh
+     * @date 2026/10/19 21:40
+     */
+    private static int nextAttempt(int attempt) {
+        return attempt < Integer.MAX_VALUE ? attempt + 1 : attempt;
+    }
+}
@@ -0,0 +1,47 @@
+package org.shiloh.multithread.waitandnotify;
+
+import java.util.ArrayList;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 12:10
+ * @description 无锁环形任务队列测试，流程与{@link WaitAndNotifyTest}相同
+ * 与{@link TaskQueue}相比，放入任务时不会唤醒所有消费者，空闲的消费者按照{@link WaitStrategy#PARK}策略休眠
+ */
+public class RingBufferTaskQueueTests {
+
+    public static void main(String[] args) throws InterruptedException {
+        final var taskQueue = new RingBufferTaskQueue<String>(16, WaitStrategy.PARK);
+        final var threads = new ArrayList<Thread>();
+        for (int i = 0; i < 5; i++) {
+            final var thread = new Thread(() -> {
+                while (true) {
+                    try {
+                        final var task = taskQueue.getTask();
+                        System.out.println(Thread.currentThread().getName() + " execute task = " + task);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        final var addTaskThread = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                final var taskName = String.format("task-%s", Math.random());
+                System.out.println("add task: " + taskName);
+                try {
+                    taskQueue.addTask(taskName);
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+        addTaskThread.start();
+        addTaskThread.join();
+        Thread.sleep(1000);
+        threads.forEach(Thread::interrupt);
+    }
+}
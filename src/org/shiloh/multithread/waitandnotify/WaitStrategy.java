@@ -0,0 +1,65 @@
+package org.shiloh.multithread.waitandnotify;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author shiloh
+ * @date 2026/10/18 11:30
+ * @description {@link RingBufferTaskQueue}在队列为空（取任务）或已满（放任务）时的等待策略
+ * 与wait()/notifyAll()不同，等待中的线程不依赖其他线程唤醒，而是按照策略空转、让出CPU或短暂休眠后重新检查队列，
+ * 所以放入1个任务时不会把所有消费者都唤醒去争抢同一把锁（惊群效应）。
+ * <p>
+ * 三种内置策略在延迟和CPU占用之间取舍：
+ * {@link #SPIN}：一直空转，延迟最低，但会占满1个CPU核心，只适合线程数不超过核心数的场景；
+ * {@link #YIELD}：空转一段时间后调用Thread.yield()让出CPU，延迟较低，CPU占用仍然较高；
+ * {@link #PARK}：空转、让出CPU都无果后调用LockSupport.parkNanos()休眠，休眠时间逐步翻倍直到{@link #MAX_PARK_NANOS}，
+ * 空闲时几乎不占CPU，代价是任务到达后最多要等待{@link #MAX_PARK_NANOS}才会被发现。
+ */
+@FunctionalInterface
+public interface WaitStrategy {
+
+    /**
+     * 空转的次数
+     */
+    int SPIN_TRIES = 100;
+
+    /**
+     * 让出CPU的次数
+     */
+    int YIELD_TRIES = 100;
+
+    /**
+     * PARK策略单次休眠的最长时间：1ms
+     */
+    long MAX_PARK_NANOS = 1_000_000L;
+
+    WaitStrategy SPIN = attempt -> Thread.onSpinWait();
+
+    WaitStrategy YIELD = attempt -> {
+        if (attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    };
+
+    WaitStrategy PARK = attempt -> {
+        if (attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            final var shift = Math.min(attempt - SPIN_TRIES - YIELD_TRIES, 20);
+            LockSupport.parkNanos(Math.min(1L << shift, MAX_PARK_NANOS));
+        }
+    };
+
+    /**
+     * 等待一小段时间，调用方在返回后重新检查队列状态
+     *
+     * @param attempt 本次等待之前已经连续等待的次数，从0开始，每次重新检查失败后加1，达到Integer.MAX_VALUE后不再增加
+     * @author shiloh
+     * @date 2026/10/18 11:35
+     */
+    void idle(int attempt);
+}